@@ -0,0 +1,38 @@
+package com.fleetpin.graphql.database.dynamo.history.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.fleetpin.graphql.database.manager.dynamo.LinkUtil;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+
+/**
+ * Keeps the far side of links up to date for databases built with async links. Subscribe it to the entity table stream
+ * with new and old images.
+ */
+public abstract class LinkLambda implements RequestHandler<DynamodbEvent, Void> {
+
+	public LinkLambda() {}
+
+	public abstract String getTableName();
+
+	public abstract DynamoDbAsyncClient getClient();
+
+	@Override
+	public Void handleRequest(DynamodbEvent input, Context context) {
+		var records = input.getRecords().stream().map(DynamoUtil::toV2);
+		process(records);
+		return null;
+	}
+
+	public void process(Stream<Record> records) {
+		try {
+			LinkUtil.process(getClient(), getTableName(), records).get();
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Where a change sits in the order changes are read back, by the time it was written and then by id
+ */
+public final class ChangePosition implements Comparable<ChangePosition> {
+
+	private static final Comparator<ChangePosition> ORDER = Comparator.comparing(ChangePosition::getUpdatedAt).thenComparing(ChangePosition::getId);
+
+	private final Instant updatedAt;
+	private final String id;
+
+	public ChangePosition(Instant updatedAt, String id) {
+		this.updatedAt = updatedAt;
+		this.id = id;
+	}
+
+	/**
+	 * @return position before every change written at or after the time
+	 */
+	public static ChangePosition before(Instant updatedAt) {
+		return new ChangePosition(updatedAt, "");
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public int compareTo(ChangePosition other) {
+		return ORDER.compare(this, other);
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Entities of a type changed since an earlier sync. The token is opaque, pass it back through
+ * {@link Database#queryChangedSince(Class, String)} to get what changed after this. When there are more changes than
+ * the limit the token carries on from the last one returned.
+ */
+public final class Changes<T extends Table> {
+
+	private final List<T> items;
+	private final List<String> deleted;
+	private final ChangePosition next;
+	private final boolean more;
+
+	public Changes(List<T> items, List<String> deleted, ChangePosition next, boolean more) {
+		this.items = items;
+		this.deleted = deleted;
+		this.next = next;
+		this.more = more;
+	}
+
+	/**
+	 * @return entities created or updated since the sync
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return ids of entities deleted since the sync
+	 */
+	public List<String> getDeleted() {
+		return deleted;
+	}
+
+	/**
+	 * @return true when the limit was reached and the token carries on with changes not returned yet
+	 */
+	public boolean hasMore() {
+		return more;
+	}
+
+	public String getToken() {
+		var position = next.getUpdatedAt().toEpochMilli() + ":" + next.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static ChangePosition decode(String token) {
+		try {
+			var position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			//tokens from before paging only hold the time
+			var split = position.indexOf(':');
+			if (split == -1) {
+				return ChangePosition.before(Instant.ofEpochMilli(Long.parseLong(position)));
+			}
+			return new ChangePosition(Instant.ofEpochMilli(Long.parseLong(position.substring(0, split))), position.substring(split + 1));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid sync token " + token, e);
+		}
+	}
+}
@@ -13,37 +13,70 @@
 package com.fleetpin.graphql.database.manager;
 
 import com.fleetpin.graphql.database.manager.access.ForbiddenWriteException;
-import com.fleetpin.graphql.database.manager.access.ModificationPermission;
+import com.fleetpin.graphql.database.manager.access.BatchModificationPermission;
+import com.fleetpin.graphql.database.manager.annotations.Hash;
+import com.fleetpin.graphql.database.manager.annotations.Prefetch;
+import com.fleetpin.graphql.database.manager.annotations.TrackChanges;
 import com.fleetpin.graphql.database.manager.util.BackupItem;
+import com.fleetpin.graphql.database.manager.util.CompletableFutureUtil;
 import com.fleetpin.graphql.database.manager.util.TableCoreUtil;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.dataloader.DataLoader;
 import org.dataloader.DataLoaderOptions;
+import org.dataloader.Try;
 
 @SuppressWarnings("unchecked")
 public class Database {
 
+	private static final int MAX_CONCURRENT_LOOKUPS = 16;
+	//the updatedAt index is only eventually consistent so a sync token looks back over changes that may not show up yet
+	private static final Duration CHANGES_SETTLE = Duration.ofSeconds(5);
+	private static final int CHANGES_LIMIT = 1000;
+
 	private String organisationId;
 	private final DatabaseDriver driver;
 
 	private final TableDataLoader<DatabaseKey<Table>> items;
+	private final TableDataLoader<DatabaseKey<Table>> eventualItems;
+	private final TableDataLoader<DatabaseKey<Table>> projectedItems;
 	private final TableDataLoader<DatabaseQueryKey<Table>> queries;
 	private final TableDataLoader<DatabaseQueryHistoryKey<Table>> queryHistories;
+	//holds the keys found, the entities are loaded after so their batch is not waited on inside this one
+	private final TableDataLoader<DatabaseIndexKey<Table>> secondaries;
+	private final TableDataLoader<DatabaseIndexKey<Table>> globals;
+	private final TableDataLoader<DatabaseQueryKey<Table>> counts;
+	private final TableDataLoader<DatabaseKey<Table>> existence;
 	private final DataWriter put;
+	private final LinkWriter linker;
+
+	private final PermissionChecker putAllow;
 
-	private final Function<Table, CompletableFuture<Boolean>> putAllow;
+	private ReadConsistency readConsistency = ReadConsistency.STRONG;
 
-	Database(String organisationId, DatabaseDriver driver, ModificationPermission putAllow) {
+	//bumped whenever the read caches are cleared so a read that started before a write is not cached after it
+	private final AtomicLong writes = new AtomicLong();
+	private final Map<Class<? extends Table>, Prefetched> prefetched = new ConcurrentHashMap<>();
+	//unlimited prefix queries that narrower queries of the same type can be answered from
+	private final List<Covering> coverings = new CopyOnWriteArrayList<>();
+
+	Database(String organisationId, DatabaseDriver driver, BatchModificationPermission putAllow) {
 		this.organisationId = organisationId;
 		this.driver = driver;
-		this.putAllow = putAllow;
+		this.putAllow = new PermissionChecker(putAllow);
 
 		items =
 			new TableDataLoader<>(
@@ -55,6 +88,28 @@ public class Database {
 				)
 			); // will auto call global
 
+		//kept apart from strong reads so they batch separately and a strong read never gets an eventual result
+		eventualItems =
+			new TableDataLoader<>(
+				new DataLoader<DatabaseKey<Table>, Table>(
+					keys -> {
+						return driver.get(keys);
+					},
+					DataLoaderOptions.newOptions().setMaxBatchSize(driver.maxBatchSize())
+				)
+			);
+
+		//partial entities are kept apart so they are never handed out where a full entity is expected
+		projectedItems =
+			new TableDataLoader<>(
+				new DataLoader<DatabaseKey<Table>, Table>(
+					keys -> {
+						return driver.get(keys);
+					},
+					DataLoaderOptions.newOptions().setMaxBatchSize(driver.maxBatchSize())
+				)
+			);
+
 		queries =
 			new TableDataLoader<>(
 				new DataLoader<DatabaseQueryKey<Table>, List<Table>>(
@@ -75,7 +130,69 @@ public class Database {
 				)
 			); // will auto call global
 
+		//each lookup is its own set of index queries so batches only bound how many run at once
+		secondaries =
+			new TableDataLoader<>(
+				DataLoader.<DatabaseIndexKey<Table>, List<DatabaseKey<Table>>>newDataLoaderWithTry(
+					keys -> lookups(keys, key -> driver.querySecondary(key.getOrganisationId(), key.getQuery(), items))
+				)
+			);
+
+		globals =
+			new TableDataLoader<>(
+				DataLoader.<DatabaseIndexKey<Table>, QueryPage<Table>>newDataLoaderWithTry(keys -> lookups(keys, key -> driver.queryGlobal(key.getQuery())))
+			);
+
+		counts =
+			new TableDataLoader<>(
+				new DataLoader<DatabaseQueryKey<Table>, Integer>(
+					keys -> {
+						return merge(keys.stream().map(driver::count));
+					},
+					DataLoaderOptions.newOptions().setBatchingEnabled(false)
+				)
+			);
+
+		existence =
+			new TableDataLoader<>(
+				new DataLoader<DatabaseKey<Table>, Boolean>(
+					keys -> {
+						return driver.exists(keys);
+					},
+					DataLoaderOptions.newOptions().setMaxBatchSize(driver.maxBatchSize())
+				)
+			);
+
 		put = new DataWriter(driver::bulkPut);
+		linker = new LinkWriter(driver::bulkLink);
+	}
+
+	/**
+	 * Runs the lookups of a batch at most MAX_CONCURRENT_LOOKUPS at a time, one that fails only fails its own key
+	 */
+	private static <K, V> CompletableFuture<List<Try<V>>> lookups(List<K> keys, Function<K, CompletableFuture<V>> lookup) {
+		return CompletableFutureUtil.sequence(
+			keys
+				.stream()
+				.<Supplier<CompletableFuture<Try<V>>>>map(key ->
+					() -> {
+						CompletableFuture<V> future;
+						try {
+							future = lookup.apply(key);
+						} catch (RuntimeException e) {
+							future = CompletableFuture.failedFuture(e);
+						}
+						return future.handle((result, error) -> {
+							if (error == null) {
+								return Try.succeeded(result);
+							}
+							return Try.failed(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+						});
+					}
+				)
+				.collect(Collectors.toList()),
+			MAX_CONCURRENT_LOOKUPS
+		);
 	}
 
 	public <T extends Table> CompletableFuture<List<T>> query(Class<T> type, Function<QueryBuilder<T>, QueryBuilder<T>> func) {
@@ -83,9 +200,203 @@ public class Database {
 	}
 
 	public <T extends Table> CompletableFuture<List<T>> query(Query<T> query) {
-		DatabaseQueryKey<Table> key = (DatabaseQueryKey<Table>) KeyFactory.createDatabaseQueryKey(organisationId, query);
-		CompletableFuture<List<T>> toReturn = queries.load(key);
-		return toReturn.thenApply(items -> items.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+		DatabaseQueryKey<Table> key = (DatabaseQueryKey<Table>) KeyFactory.createDatabaseQueryKey(organisationId, query, consistency(query));
+		var generation = writes.get();
+		CompletableFuture<List<T>> toReturn = covered(key, generation);
+		if (toReturn == null) {
+			toReturn = queries.load(key);
+			if (canCover(query)) {
+				coverings.removeIf(covering -> covering.generation != generation);
+				coverings.add(new Covering(key, generation, toReturn));
+			}
+		}
+		return toReturn.thenApply(items -> {
+			var found = items.stream().filter(Objects::nonNull).collect(Collectors.toList());
+			prime(query, found, generation);
+			return found;
+		});
+	}
+
+	public <T extends Table> CompletableFuture<QueryPage<T>> queryPage(Class<T> type, Function<QueryBuilder<T>, QueryBuilder<T>> func) {
+		return queryPage(func.apply(QueryBuilder.create(type)).build());
+	}
+
+	/**
+	 * Reads up to the query limit and returns a cursor to pass to {@link QueryBuilder#cursor(String)} for the next page
+	 */
+	public <T extends Table> CompletableFuture<QueryPage<T>> queryPage(Query<T> query) {
+		var generation = writes.get();
+		return driver
+			.queryPage(KeyFactory.createDatabaseQueryKey(organisationId, query, consistency(query)))
+			.thenApply(page -> {
+				prime(query, page.getItems(), generation);
+				return page;
+			});
+	}
+
+	/**
+	 * @return the results of the query taken from an earlier query with a shorter prefix, null if none covers it
+	 */
+	private <T extends Table> CompletableFuture<List<T>> covered(DatabaseQueryKey<Table> key, long generation) {
+		var query = key.getQuery();
+		if (query.getCursor() != null || query.getAfter() != null || query.hasRange() || query.getFilter() != null || isHashed(query.getType())) {
+			return null;
+		}
+		var prefix = Objects.requireNonNullElse(query.getStartsWith(), "");
+		for (var covering : coverings) {
+			var wider = covering.key.getQuery();
+			if (
+				covering.generation == generation &&
+				Objects.equals(covering.key.getOrganisationId(), key.getOrganisationId()) &&
+				covering.key.getConsistency() == key.getConsistency() &&
+				wider.getType().equals(query.getType()) &&
+				Objects.equals(wider.getFields(), query.getFields()) &&
+				prefix.startsWith(Objects.requireNonNullElse(wider.getStartsWith(), ""))
+			) {
+				return covering.results.thenApply(items -> {
+					var found = items.stream().filter(item -> item != null && item.getId().startsWith(prefix)).map(item -> (T) item);
+					if (query.isDescending()) {
+						var reversed = found.collect(Collectors.toCollection(ArrayList::new));
+						Collections.reverse(reversed);
+						found = reversed.stream();
+					}
+					if (query.hasLimit()) {
+						found = found.limit(query.getLimit());
+					}
+					return found.collect(Collectors.toList());
+				});
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Only a query that reads everything under its prefix in id order can answer narrower ones. A hashed type reads a
+	 * partition picked from the prefix so a shorter prefix may not hold the rows of a longer one.
+	 */
+	private static boolean canCover(Query<?> query) {
+		return (
+			query.getLimit() == null &&
+			query.getCursor() == null &&
+			query.getAfter() == null &&
+			!query.hasRange() &&
+			query.getFilter() == null &&
+			!query.isDescending() &&
+			!isHashed(query.getType())
+		);
+	}
+
+	private static boolean isHashed(Class<?> type) {
+		for (var tmp = type; tmp != null; tmp = tmp.getSuperclass()) {
+			if (tmp.isAnnotationPresent(Hash.class)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Caches query results so getting them by id does not read them again. Partial entities are never cached and neither
+	 * is anything read before the latest write.
+	 */
+	private <T extends Table> void prime(Query<T> query, List<T> entities, long generation) {
+		if (query.getFields() != null) {
+			return;
+		}
+		if (writes.get() != generation) {
+			return;
+		}
+		var consistency = consistency(query);
+		var loader = items(consistency);
+		for (var entity : entities) {
+			DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, query.getType(), entity.getId(), null, consistency);
+			loader.prime(key, entity);
+		}
+	}
+
+	public <T extends Table> CompletableFuture<Integer> count(Class<T> type, Function<QueryBuilder<T>, QueryBuilder<T>> func) {
+		return count(func.apply(QueryBuilder.create(type)).build());
+	}
+
+	/**
+	 * Counts the entities the query would return without reading them, the limit, cursor and fields are ignored
+	 */
+	public <T extends Table> CompletableFuture<Integer> count(Query<T> query) {
+		DatabaseQueryKey<Table> key = (DatabaseQueryKey<Table>) KeyFactory.createDatabaseQueryKey(organisationId, query, consistency(query));
+		return counts.load(key);
+	}
+
+	/**
+	 * Checks if the entity exists without reading it
+	 */
+	public <T extends Table> CompletableFuture<Boolean> exists(Class<T> type, String id) {
+		if (id == null) {
+			return CompletableFuture.completedFuture(false);
+		}
+		DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, type, id, null, readConsistency);
+		return existence.load(key);
+	}
+
+	/**
+	 * Carries on a sync from the token of an earlier call. Changes close to the token can be returned again so applying
+	 * them has to be idempotent.
+	 */
+	public <T extends Table> CompletableFuture<Changes<T>> queryChangedSince(Class<T> type, String token) {
+		return queryChangedSince(type, token, CHANGES_LIMIT);
+	}
+
+	/**
+	 * @param limit most changes to return, {@link Changes#hasMore()} says if the token has more to give
+	 */
+	public <T extends Table> CompletableFuture<Changes<T>> queryChangedSince(Class<T> type, String token, int limit) {
+		return queryChangedSince(type, Changes.decode(token), limit);
+	}
+
+	/**
+	 * Reads the entities of a type marked with {@link TrackChanges} that were written or deleted since the time, deleted
+	 * ones are returned by id
+	 */
+	public <T extends Table> CompletableFuture<Changes<T>> queryChangedSince(Class<T> type, Instant since) {
+		return queryChangedSince(type, since, CHANGES_LIMIT);
+	}
+
+	/**
+	 * @param limit most changes to return, {@link Changes#hasMore()} says if the token has more to give
+	 */
+	public <T extends Table> CompletableFuture<Changes<T>> queryChangedSince(Class<T> type, Instant since, int limit) {
+		return queryChangedSince(type, ChangePosition.before(since), limit);
+	}
+
+	private <T extends Table> CompletableFuture<Changes<T>> queryChangedSince(Class<T> type, ChangePosition after, int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Changes limit must be positive");
+		}
+		//only a sync that has caught up looks back, a full page carries on from exactly where it stopped
+		var now = ChangePosition.before(Instant.now().minus(CHANGES_SETTLE));
+		var settled = now.compareTo(after) > 0 ? now : after;
+		return driver
+			.changedSince(organisationId, type, after, limit)
+			.thenCompose(positions -> {
+				List<DatabaseKey<Table>> keys = positions
+					.stream()
+					.map(position -> (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, type, position.getId(), null, readConsistency))
+					.collect(Collectors.toList());
+				return items(readConsistency)
+					.<T>loadMany(keys)
+					.thenApply(found -> {
+						var changed = new ArrayList<T>();
+						var deleted = new ArrayList<String>();
+						for (int i = 0; i < positions.size(); i++) {
+							if (found.get(i) == null) {
+								deleted.add(positions.get(i).getId());
+							} else {
+								changed.add(found.get(i));
+							}
+						}
+						var more = positions.size() == limit;
+						return new Changes<>(changed, deleted, more ? positions.get(limit - 1) : settled, more);
+					});
+			});
 	}
 
 	public <T extends Table> CompletableFuture<List<T>> queryHistory(QueryHistory<T> queryHistory) {
@@ -99,7 +410,17 @@ public class Database {
 	}
 
 	public <T extends Table> CompletableFuture<List<T>> queryGlobal(Class<T> type, String id) {
-		return driver.queryGlobal(type, id);
+		return queryGlobalPage(type, id, null, null).thenApply(QueryPage::getItems);
+	}
+
+	/**
+	 * Reads up to limit entities with the global index value
+	 * @param cursor from the previous page, null for the first
+	 */
+	public <T extends Table> CompletableFuture<QueryPage<T>> queryGlobalPage(Class<T> type, String id, Integer limit, String cursor) {
+		var query = IndexQueryBuilder.create(type).value(id).limit(limit).cursor(cursor).build();
+		DatabaseIndexKey<Table> key = (DatabaseIndexKey<Table>) KeyFactory.createDatabaseIndexKey(null, query);
+		return globals.load(key);
 	}
 
 	public <T extends Table> CompletableFuture<T> queryGlobalUnique(Class<T> type, String id) {
@@ -128,11 +449,34 @@ public class Database {
 	}
 
 	public <T extends Table> CompletableFuture<List<T>> querySecondary(Class<T> type, String id) {
-		return driver.querySecondary(type, organisationId, id, items);
+		return querySecondary(IndexQueryBuilder.create(type).value(id).build());
+	}
+
+	/**
+	 * Looks up by the value of a named secondary index
+	 */
+	public <T extends Table> CompletableFuture<List<T>> querySecondary(Class<T> type, String index, String id) {
+		return querySecondary(IndexQueryBuilder.create(type).index(index).value(id).build());
+	}
+
+	/**
+	 * Looks up by a value, prefix or range of the secondary index, results are ordered by the index value
+	 */
+	public <T extends Table> CompletableFuture<List<T>> querySecondary(Class<T> type, Function<IndexQueryBuilder<T>, IndexQueryBuilder<T>> func) {
+		return querySecondary(func.apply(IndexQueryBuilder.create(type)).build());
+	}
+
+	public <T extends Table> CompletableFuture<List<T>> querySecondary(IndexQuery<T> query) {
+		DatabaseIndexKey<Table> key = (DatabaseIndexKey<Table>) KeyFactory.createDatabaseIndexKey(organisationId, query);
+		return secondaries.<List<DatabaseKey<Table>>>load(key).thenCompose(keys -> items.<T>loadMany(keys));
 	}
 
 	public <T extends Table> CompletableFuture<T> querySecondaryUnique(Class<T> type, String id) {
-		return querySecondary(type, id)
+		return querySecondaryUnique(type, null, id);
+	}
+
+	public <T extends Table> CompletableFuture<T> querySecondaryUnique(Class<T> type, String index, String id) {
+		return querySecondary(type, index, id)
 			.thenApply(items -> {
 				if (items.size() > 1) {
 					throw new RuntimeException("expected single linkage");
@@ -148,8 +492,12 @@ public class Database {
 		if (id == null) {
 			return CompletableFuture.completedFuture(Optional.empty());
 		}
-		DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, type, id);
-		return items
+		CompletableFuture<T> fromPrefetch = prefetched(type, id, readConsistency);
+		if (fromPrefetch != null) {
+			return fromPrefetch.thenApply(Optional::ofNullable);
+		}
+		DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, type, id, null, readConsistency);
+		return items(readConsistency)
 			.load(key)
 			.thenApply(item -> {
 				if (item == null) {
@@ -161,8 +509,55 @@ public class Database {
 	}
 
 	public <T extends Table> CompletableFuture<T> get(Class<T> type, String id) {
-		DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, type, id);
-		return items
+		return get(type, id, readConsistency);
+	}
+
+	public <T extends Table> CompletableFuture<T> get(Class<T> type, String id, ReadConsistency consistency) {
+		CompletableFuture<T> fromPrefetch = prefetched(type, id, consistency);
+		if (fromPrefetch != null) {
+			return fromPrefetch;
+		}
+		DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, type, id, null, consistency);
+		return items(consistency)
+			.load(key)
+			.thenApply(item -> {
+				return (T) item;
+			});
+	}
+
+	/**
+	 * Reads every entity of the type in one query so later gets of it, including of ids that do not exist, are answered
+	 * without reading again. Writes through this database drop what was prefetched. Types marked with
+	 * {@link com.fleetpin.graphql.database.manager.annotations.Prefetch} are prefetched on their first get.
+	 */
+	public <T extends Table> CompletableFuture<List<T>> prefetch(Class<T> type) {
+		var entities = query(type);
+		prefetched.put(type, new Prefetched(organisationId, readConsistency, writes.get(), entities));
+		return entities;
+	}
+
+	/**
+	 * @return the entity from the prefetched type, null if the type is not prefetched for this read
+	 */
+	private <T extends Table> CompletableFuture<T> prefetched(Class<T> type, String id, ReadConsistency consistency) {
+		var entry = prefetched.get(type);
+		if (entry == null || !entry.matches(organisationId, consistency, writes.get())) {
+			if (consistency != readConsistency || !type.isAnnotationPresent(Prefetch.class)) {
+				return null;
+			}
+			prefetch(type);
+			entry = prefetched.get(type);
+		}
+		return entry.byId.thenApply(byId -> (T) byId.get(id));
+	}
+
+	/**
+	 * Reads only the given fields of the entity, the id, revision and links are always read. The entity is only partially
+	 * populated so can not be put back.
+	 */
+	public <T extends Table> CompletableFuture<T> get(Class<T> type, String id, Collection<String> fields) {
+		DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, type, id, fields, readConsistency);
+		return projectedItems
 			.load(key)
 			.thenApply(item -> {
 				return (T) item;
@@ -176,14 +571,13 @@ public class Database {
 			}
 		}
 		return putAllow
-			.apply(entity)
+			.check(entity)
 			.thenCompose(allow -> {
 				if (!allow) {
 					throw new ForbiddenWriteException("Delete not allowed for " + TableCoreUtil.table(entity.getClass()) + " with id " + entity.getId());
 				}
 				DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, entity.getClass(), entity.getId());
-				items.clear(key);
-				queries.clearAll();
+				invalidate(key);
 
 				if (deleteLinks) {
 					return deleteLinks(entity).thenCompose(t -> driver.delete(organisationId, entity));
@@ -198,6 +592,51 @@ public class Database {
 			.thenApply(items -> items.stream().filter(Objects::nonNull).map(item -> (T) item).collect(Collectors.toList()));
 	}
 
+	public <T extends Table> CompletableFuture<List<T>> traverse(final Table entry, Traversal<T> traversal) {
+		return traverse(List.of(entry), traversal);
+	}
+
+	/**
+	 * Follows the hops level by level. Every link of a level is asked for before any is read so each level goes out as one
+	 * batch through the items loader. An entity already reached is not followed again so cycles end.
+	 *
+	 * @return the distinct entities reached by the last hop
+	 */
+	public <T extends Table> CompletableFuture<List<T>> traverse(final List<? extends Table> entries, Traversal<T> traversal) {
+		var visited = new HashSet<String>();
+		var frontier = new ArrayList<Table>();
+		for (var entry : entries) {
+			if (visited.add(visitKey(entry))) {
+				frontier.add(entry);
+			}
+		}
+		return traverse(frontier, traversal.getHops(), 0, visited).thenApply(found -> found.stream().map(item -> (T) item).collect(Collectors.toList()));
+	}
+
+	private CompletableFuture<List<Table>> traverse(List<Table> frontier, List<Traversal.Hop> hops, int level, Set<String> visited) {
+		if (level == hops.size() || frontier.isEmpty()) {
+			return CompletableFuture.completedFuture(frontier);
+		}
+		var hop = hops.get(level);
+		var type = (Class<Table>) hop.getType();
+		return merge(frontier.stream().map(entity -> driver.getViaLinks(organisationId, entity, type, items, hop.getFanOut())))
+			.thenCompose(found -> {
+				var next = new ArrayList<Table>();
+				for (var linked : found) {
+					for (var entity : linked) {
+						if (entity != null && visited.add(visitKey(entity))) {
+							next.add(entity);
+						}
+					}
+				}
+				return traverse(next, hops, level + 1, visited);
+			});
+	}
+
+	private static String visitKey(Table entity) {
+		return TableCoreUtil.table(entity.getClass()) + ":" + entity.getId();
+	}
+
 	public <T extends Table> CompletableFuture<T> getLink(final Table entry, Class<T> target) {
 		return getLinks(entry, target)
 			.thenApply(items -> {
@@ -212,16 +651,36 @@ public class Database {
 		return getLink(entry, target).thenApply(t -> Optional.ofNullable(t));
 	}
 
+	/**
+	 * Drops everything a write can make stale
+	 *
+	 * @param key item the write changes, null when it can change any item
+	 */
+	private void invalidate(DatabaseKey<Table> key) {
+		if (key == null) {
+			items.clearAll();
+		} else {
+			items.clear(key);
+		}
+		queries.clearAll();
+		eventualItems.clearAll();
+		projectedItems.clearAll();
+		secondaries.clearAll();
+		globals.clearAll();
+		counts.clearAll();
+		existence.clearAll();
+		writes.incrementAndGet();
+	}
+
 	public <T extends Table> CompletableFuture<T> deleteLinks(T entity) {
 		return putAllow
-			.apply(entity)
+			.check(entity)
 			.thenCompose(allow -> {
 				if (!allow) {
 					throw new ForbiddenWriteException("Delete links not allowed for " + TableCoreUtil.table(entity.getClass()) + " with id " + entity.getId());
 				}
 				//impact of clearing links to tricky
-				items.clearAll();
-				queries.clearAll();
+				invalidate(null);
 				return driver.deleteLinks(organisationId, entity);
 			});
 	}
@@ -250,30 +709,34 @@ public class Database {
 	 * CompletableFuture will fail with a RevisionMismatchException
 	 */
 	public <T extends Table> CompletableFuture<T> put(T entity, boolean check) {
+		if (entity.isPartial()) {
+			throw new RuntimeException("can not put a partially read entity " + TableCoreUtil.table(entity.getClass()) + " with id " + entity.getId());
+		}
 		return putAllow
-			.apply(entity)
+			.check(entity)
 			.thenCompose(allow -> {
 				if (!allow) {
 					throw new ForbiddenWriteException("put not allowed for " + TableCoreUtil.table(entity.getClass()) + " with id " + entity.getId());
 				}
 				DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, entity.getClass(), entity.getId());
-				items.clear(key);
-				queries.clearAll();
+				invalidate(key);
 
 				return put.put(organisationId, entity, check);
 			});
 	}
 
 	public <T extends Table> CompletableFuture<T> putGlobal(T entity) {
+		if (entity.isPartial()) {
+			throw new RuntimeException("can not put a partially read entity " + TableCoreUtil.table(entity.getClass()) + " with id " + entity.getId());
+		}
 		return putAllow
-			.apply(entity)
+			.check(entity)
 			.thenCompose(allow -> {
 				if (!allow) {
 					throw new ForbiddenWriteException("put global not allowed for " + TableCoreUtil.table(entity.getClass()) + " with id " + entity.getId());
 				}
 				DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, entity.getClass(), entity.getId());
-				items.clear(key);
-				queries.clearAll();
+				invalidate(key);
 				return put.put("global", entity, false);
 			});
 	}
@@ -304,8 +767,35 @@ public class Database {
 			return;
 		}
 
-		if (items.dispatchDepth() > 0 || queries.dispatchDepth() > 0 || queryHistories.dispatchDepth() > 0 || put.dispatchSize() > 0) {
-			CompletableFuture[] all = new CompletableFuture[] { items.dispatch(), queries.dispatch(), queryHistories.dispatch(), put.dispatch() };
+		if (
+			putAllow.dispatchSize() > 0 ||
+			items.dispatchDepth() > 0 ||
+			eventualItems.dispatchDepth() > 0 ||
+			projectedItems.dispatchDepth() > 0 ||
+			queries.dispatchDepth() > 0 ||
+			queryHistories.dispatchDepth() > 0 ||
+			secondaries.dispatchDepth() > 0 ||
+			globals.dispatchDepth() > 0 ||
+			counts.dispatchDepth() > 0 ||
+			existence.dispatchDepth() > 0 ||
+			put.dispatchSize() > 0 ||
+			linker.dispatchSize() > 0
+		) {
+			//permissions first so writes they allow straight away go out in this dispatch
+			CompletableFuture[] all = new CompletableFuture[] {
+				putAllow.dispatch(),
+				items.dispatch(),
+				eventualItems.dispatch(),
+				projectedItems.dispatch(),
+				queries.dispatch(),
+				queryHistories.dispatch(),
+				secondaries.dispatch(),
+				globals.dispatch(),
+				counts.dispatch(),
+				existence.dispatch(),
+				put.dispatch(),
+				linker.dispatch()
+			};
 			CompletableFuture
 				.allOf(all)
 				.whenComplete((response, error) -> {
@@ -319,15 +809,14 @@ public class Database {
 
 	public <T extends Table> CompletableFuture<T> links(T entity, Class<? extends Table> class1, List<String> targetIds) {
 		return putAllow
-			.apply(entity)
+			.check(entity)
 			.thenCompose(allow -> {
 				if (!allow) {
 					throw new ForbiddenWriteException("Link not allowed for " + TableCoreUtil.table(entity.getClass()) + " with id " + entity.getId());
 				}
 
 				DatabaseKey<Table> key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, entity.getClass(), entity.getId());
-				items.clear(key);
-				queries.clearAll();
+				invalidate(key);
 
 				for (String id : getLinkIds(entity, class1)) {
 					key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, class1, id);
@@ -339,10 +828,23 @@ public class Database {
 					items.clear(key);
 				}
 
-				return driver.link(organisationId, entity, class1, targetIds);
+				return linker.link(organisationId, entity, class1, targetIds);
 			});
 	}
 
+	/**
+	 * Links each entity to its list of target ids. All links queued in the same dispatch are sent together so a target
+	 * shared between entities is only updated once.
+	 *
+	 * @param <T>    database entity type to update
+	 * @param links  the complete set of target ids for each entity, replacing any existing links of that type
+	 * @param class1 type of the targets
+	 * @return updated entities with their revisions incremented
+	 */
+	public <T extends Table> CompletableFuture<List<T>> linksBulk(Map<T, List<String>> links, Class<? extends Table> class1) {
+		return TableCoreUtil.all(links.entrySet().stream().map(entry -> links(entry.getKey(), class1, entry.getValue())).collect(Collectors.toList()));
+	}
+
 	public <T extends Table> CompletableFuture<T> link(T entity, Class<? extends Table> class1, String targetId) {
 		if (targetId == null) {
 			return links(entity, class1, Collections.emptyList());
@@ -353,15 +855,14 @@ public class Database {
 
 	public <T extends Table> CompletableFuture<T> unlink(final T entity, final Class<? extends Table> clazz, final String targetId) {
 		return putAllow
-			.apply(entity)
+			.check(entity)
 			.thenCompose(allow -> {
 				if (!allow) {
 					throw new ForbiddenWriteException("Unlink not allowed for " + TableCoreUtil.table(entity.getClass()) + " with id " + entity.getId());
 				}
 
 				var key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, entity.getClass(), entity.getId());
-				items.clear(key);
-				queries.clearAll();
+				invalidate(key);
 
 				for (final String id : getLinkIds(entity, clazz)) {
 					key = (DatabaseKey<Table>) KeyFactory.createDatabaseKey(organisationId, clazz, id);
@@ -382,6 +883,21 @@ public class Database {
 		return TableCoreUtil.all(ids.stream().map(id -> get(class1, id)).collect(Collectors.toList()));
 	}
 
+	/**
+	 * Sets the consistency of gets and queries that do not ask for one. Reads made while following links stay strong.
+	 */
+	public void setReadConsistency(ReadConsistency readConsistency) {
+		this.readConsistency = readConsistency;
+	}
+
+	private TableDataLoader<DatabaseKey<Table>> items(ReadConsistency consistency) {
+		return consistency == ReadConsistency.EVENTUAL ? eventualItems : items;
+	}
+
+	private ReadConsistency consistency(Query<?> query) {
+		return query.getConsistency() == null ? readConsistency : query.getConsistency();
+	}
+
 	public void setOrganisationId(String organisationId) {
 		this.organisationId = organisationId;
 	}
@@ -397,4 +913,44 @@ public class Database {
 	public Set<String> getLinkIds(Table entity, Class<? extends Table> type) {
 		return Collections.unmodifiableSet(TableAccess.getTableLinks(entity).get(TableCoreUtil.table(type)));
 	}
+
+	private static final class Covering {
+
+		private final DatabaseQueryKey<Table> key;
+		private final long generation;
+		private final CompletableFuture<? extends List<? extends Table>> results;
+
+		private Covering(DatabaseQueryKey<Table> key, long generation, CompletableFuture<? extends List<? extends Table>> results) {
+			this.key = key;
+			this.generation = generation;
+			this.results = results;
+		}
+	}
+
+	private static final class Prefetched {
+
+		private final String organisationId;
+		private final ReadConsistency consistency;
+		private final long generation;
+		private final CompletableFuture<Map<String, Table>> byId;
+
+		private Prefetched(String organisationId, ReadConsistency consistency, long generation, CompletableFuture<? extends List<? extends Table>> entities) {
+			this.organisationId = organisationId;
+			this.consistency = consistency;
+			this.generation = generation;
+			this.byId = entities.thenApply(found -> found.stream().collect(Collectors.toMap(Table::getId, entity -> (Table) entity)));
+		}
+
+		/**
+		 * A failed read is never used so the next get tries again
+		 */
+		private boolean matches(String organisationId, ReadConsistency consistency, long generation) {
+			return (
+				Objects.equals(this.organisationId, organisationId) &&
+				this.consistency == consistency &&
+				this.generation == generation &&
+				!byId.isCompletedExceptionally()
+			);
+		}
+	}
 }
@@ -18,6 +18,7 @@ import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public abstract class DatabaseDriver {
 
@@ -29,6 +30,8 @@ public abstract class DatabaseDriver {
 
 	public abstract CompletableFuture<Void> bulkPut(List<PutValue> values);
 
+	public abstract CompletableFuture<Void> bulkLink(List<LinkValue> values);
+
 	public abstract <T extends Table> CompletableFuture<List<T>> get(List<DatabaseKey<T>> keys);
 
 	public abstract <T extends Table> CompletableFuture<List<T>> getViaLinks(
@@ -38,8 +41,44 @@ public abstract class DatabaseDriver {
 		TableDataLoader<DatabaseKey<Table>> items
 	);
 
+	/**
+	 * Only follows up to the limit of links, drivers that can pick the links before reading them should
+	 */
+	public <T extends Table> CompletableFuture<List<T>> getViaLinks(
+		String organisationId,
+		Table entry,
+		Class<T> type,
+		TableDataLoader<DatabaseKey<Table>> items,
+		int limit
+	) {
+		return getViaLinks(organisationId, entry, type, items).thenApply(found -> found.stream().limit(limit).collect(Collectors.toList()));
+	}
+
 	public abstract <T extends Table> CompletableFuture<List<T>> query(DatabaseQueryKey<T> key);
 
+	public abstract <T extends Table> CompletableFuture<QueryPage<T>> queryPage(DatabaseQueryKey<T> key);
+
+	/**
+	 * @return how many entities the query matches, its limit, cursor and fields are ignored
+	 */
+	public abstract <T extends Table> CompletableFuture<Integer> count(DatabaseQueryKey<T> key);
+
+	/**
+	 * @return for each key whether the entity exists, in the same order
+	 */
+	public abstract <T extends Table> CompletableFuture<List<Boolean>> exists(List<DatabaseKey<T>> keys);
+
+	/**
+	 * @return positions of the entities of the type written or deleted after the position in order, at most the limit, the
+	 * type tracks its changes
+	 */
+	public abstract <T extends Table> CompletableFuture<List<ChangePosition>> changedSince(
+		String organisationId,
+		Class<T> type,
+		ChangePosition after,
+		int limit
+	);
+
 	public abstract CompletableFuture<Void> restoreBackup(List<BackupItem> entities);
 
 	public abstract CompletableFuture<List<BackupItem>> takeBackup(String organisationId);
@@ -48,6 +87,8 @@ public abstract class DatabaseDriver {
 
 	public abstract <T extends Table> CompletableFuture<List<T>> queryGlobal(Class<T> type, String value);
 
+	public abstract <T extends Table> CompletableFuture<QueryPage<T>> queryGlobal(IndexQuery<T> query);
+
 	public abstract <T extends Table> CompletableFuture<List<T>> querySecondary(
 		Class<T> type,
 		String organisationId,
@@ -55,6 +96,15 @@ public abstract class DatabaseDriver {
 		TableDataLoader<DatabaseKey<Table>> items
 	);
 
+	/**
+	 * @return keys of the matching entities in order, entities the lookup already read are primed into items
+	 */
+	public abstract <T extends Table> CompletableFuture<List<DatabaseKey<Table>>> querySecondary(
+		String organisationId,
+		IndexQuery<T> query,
+		TableDataLoader<DatabaseKey<Table>> items
+	);
+
 	public abstract <T extends Table> CompletableFuture<T> link(String organisationId, T entry, Class<? extends Table> class1, List<String> groupIds);
 
 	public abstract <T extends Table> CompletableFuture<T> unlink(
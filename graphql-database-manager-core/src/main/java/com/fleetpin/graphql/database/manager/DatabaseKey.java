@@ -13,17 +13,26 @@
 package com.fleetpin.graphql.database.manager;
 
 import java.util.Objects;
+import java.util.SortedSet;
 
 public class DatabaseKey<T extends Table> {
 
 	private final String organisationId;
 	private final Class<T> type;
 	private final String id;
+	private final SortedSet<String> fields;
+	private final ReadConsistency consistency;
 
 	DatabaseKey(String organisationId, Class<T> type, String id) {
+		this(organisationId, type, id, null, ReadConsistency.STRONG);
+	}
+
+	DatabaseKey(String organisationId, Class<T> type, String id, SortedSet<String> fields, ReadConsistency consistency) {
 		this.organisationId = organisationId;
 		this.type = type;
 		this.id = id;
+		this.fields = fields;
+		this.consistency = consistency;
 	}
 
 	public String getOrganisationId() {
@@ -38,9 +47,20 @@ public class DatabaseKey<T extends Table> {
 		return id;
 	}
 
+	/**
+	 * @return the entity fields to read, null to read the whole entity
+	 */
+	public SortedSet<String> getFields() {
+		return fields;
+	}
+
+	public ReadConsistency getConsistency() {
+		return consistency;
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(id, organisationId, type);
+		return Objects.hash(id, organisationId, type, fields, consistency);
 	}
 
 	@Override
@@ -49,11 +69,17 @@ public class DatabaseKey<T extends Table> {
 		if (obj == null) return false;
 		if (getClass() != obj.getClass()) return false;
 		DatabaseKey other = (DatabaseKey) obj;
-		return Objects.equals(id, other.id) && Objects.equals(organisationId, other.organisationId) && Objects.equals(type, other.type);
+		return (
+			Objects.equals(id, other.id) &&
+			Objects.equals(organisationId, other.organisationId) &&
+			Objects.equals(type, other.type) &&
+			Objects.equals(fields, other.fields) &&
+			consistency == other.consistency
+		);
 	}
 
 	@Override
 	public String toString() {
-		return "DatabaseKey [organisationId=" + organisationId + ", type=" + type + ", id=" + id + "]";
+		return "DatabaseKey [organisationId=" + organisationId + ", type=" + type + ", id=" + id + ", fields=" + fields + ", consistency=" + consistency + "]";
 	}
 }
@@ -1,5 +1,6 @@
 package com.fleetpin.graphql.database.manager;
 
+import com.fleetpin.graphql.database.manager.access.BatchModificationPermission;
 import com.fleetpin.graphql.database.manager.access.ModificationPermission;
 import java.util.concurrent.CompletableFuture;
 
@@ -16,6 +17,15 @@ public abstract class DatabaseManager {
 	}
 
 	public Database getDatabase(String organisationId, ModificationPermission putAllow) {
+		return new Database(organisationId, dynamoDb, BatchModificationPermission.of(putAllow));
+	}
+
+	/**
+	 * @param organisationId organisation the database reads and writes
+	 * @param putAllow       checks every entity modified in a dispatch with a single call
+	 * @return database for the organisation
+	 */
+	public Database getDatabaseWithBatchPermission(String organisationId, BatchModificationPermission putAllow) {
 		return new Database(organisationId, dynamoDb, putAllow);
 	}
 }
@@ -18,11 +18,13 @@ public class DatabaseQueryKey<T extends Table> {
 
 	private final String organisationId;
 	private final Query<T> query;
+	private final ReadConsistency consistency;
 
-	DatabaseQueryKey(String organisationId, Query<T> query) {
+	DatabaseQueryKey(String organisationId, Query<T> query, ReadConsistency consistency) {
 		super();
 		this.organisationId = organisationId;
 		this.query = query;
+		this.consistency = consistency;
 	}
 
 	public String getOrganisationId() {
@@ -33,9 +35,16 @@ public class DatabaseQueryKey<T extends Table> {
 		return query;
 	}
 
+	/**
+	 * @return the consistency of the query if set, otherwise the default of the database it was made through
+	 */
+	public ReadConsistency getConsistency() {
+		return consistency;
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(organisationId, query);
+		return Objects.hash(organisationId, query, consistency);
 	}
 
 	@Override
@@ -44,6 +53,6 @@ public class DatabaseQueryKey<T extends Table> {
 		if (obj == null) return false;
 		if (getClass() != obj.getClass()) return false;
 		DatabaseQueryKey other = (DatabaseQueryKey) obj;
-		return Objects.equals(organisationId, other.organisationId) && Objects.equals(query, other.query);
+		return Objects.equals(organisationId, other.organisationId) && Objects.equals(query, other.query) && consistency == other.consistency;
 	}
 }
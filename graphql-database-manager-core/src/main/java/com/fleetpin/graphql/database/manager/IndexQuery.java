@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager;
+
+import java.util.Objects;
+
+/**
+ * A lookup by index value. Matches a single value, a prefix or a range of values, range ends are inclusive and either
+ * may be left open.
+ */
+public class IndexQuery<T extends Table> {
+
+	private final Class<T> type;
+	private final String index;
+	private final String value;
+	private final String startsWith;
+	private final String from;
+	private final String to;
+	private final Integer limit;
+	private final boolean descending;
+	private final String cursor;
+
+	IndexQuery(Class<T> type, String index, String value, String startsWith, String from, String to, Integer limit, boolean descending, String cursor) {
+		if (type == null) {
+			throw new RuntimeException("type can not be null");
+		}
+		int conditions = (value != null ? 1 : 0) + (startsWith != null ? 1 : 0) + (from != null || to != null ? 1 : 0);
+		if (conditions != 1) {
+			throw new IllegalArgumentException("index query needs exactly one of a value, prefix or range");
+		}
+		this.type = type;
+		this.index = index;
+		this.value = value;
+		this.startsWith = startsWith;
+		this.from = from;
+		this.to = to;
+		this.limit = limit;
+		this.descending = descending;
+		this.cursor = cursor;
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * @return name of the secondary index to look up, null for the default index
+	 */
+	public String getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return exact value to match, null if matching a prefix or range
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	public String getStartsWith() {
+		return startsWith;
+	}
+
+	/**
+	 * @return lowest value to match, null for no lower bound
+	 */
+	public String getFrom() {
+		return from;
+	}
+
+	/**
+	 * @return highest value to match, null for no upper bound
+	 */
+	public String getTo() {
+		return to;
+	}
+
+	public Integer getLimit() {
+		return limit;
+	}
+
+	public boolean isDescending() {
+		return descending;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	/**
+	 * @return true when this is a plain lookup of every entity with a single value
+	 */
+	public boolean isExact() {
+		return value != null && limit == null && !descending && cursor == null;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(type, index, value, startsWith, from, to, limit, descending, cursor);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (getClass() != obj.getClass()) return false;
+		IndexQuery other = (IndexQuery) obj;
+		return (
+			Objects.equals(type, other.type) &&
+			Objects.equals(index, other.index) &&
+			Objects.equals(value, other.value) &&
+			Objects.equals(startsWith, other.startsWith) &&
+			Objects.equals(from, other.from) &&
+			Objects.equals(to, other.to) &&
+			Objects.equals(limit, other.limit) &&
+			descending == other.descending &&
+			Objects.equals(cursor, other.cursor)
+		);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager;
+
+import java.util.function.Consumer;
+
+public class IndexQueryBuilder<V extends Table> {
+
+	private final Class<V> type;
+	private String index;
+	private String value;
+	private String startsWith;
+	private String from;
+	private String to;
+	private Integer limit;
+	private boolean descending;
+	private String cursor;
+
+	private IndexQueryBuilder(Class<V> type) {
+		this.type = type;
+	}
+
+	/**
+	 * Looks up a named {@link com.fleetpin.graphql.database.manager.annotations.SecondaryIndex} rather than the default one
+	 */
+	public IndexQueryBuilder<V> index(String index) {
+		this.index = index;
+		return this;
+	}
+
+	public IndexQueryBuilder<V> value(String value) {
+		this.value = value;
+		return this;
+	}
+
+	public IndexQueryBuilder<V> startsWith(String prefix) {
+		this.startsWith = prefix;
+		return this;
+	}
+
+	public IndexQueryBuilder<V> from(String from) {
+		this.from = from;
+		return this;
+	}
+
+	public IndexQueryBuilder<V> to(String to) {
+		this.to = to;
+		return this;
+	}
+
+	public IndexQueryBuilder<V> between(String from, String to) {
+		return from(from).to(to);
+	}
+
+	public IndexQueryBuilder<V> limit(Integer limit) {
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * Returns the highest values first, applied before the limit
+	 */
+	public IndexQueryBuilder<V> descending() {
+		this.descending = true;
+		return this;
+	}
+
+	public IndexQueryBuilder<V> cursor(String cursor) {
+		this.cursor = cursor;
+		return this;
+	}
+
+	public IndexQueryBuilder<V> applyMutation(Consumer<IndexQueryBuilder<V>> mutator) {
+		mutator.accept(this);
+		return this;
+	}
+
+	public IndexQuery<V> build() {
+		return new IndexQuery<V>(type, index, value, startsWith, from, to, limit, descending, cursor);
+	}
+
+	public static <V extends Table> IndexQueryBuilder<V> create(Class<V> type) {
+		return new IndexQueryBuilder<V>(type);
+	}
+}
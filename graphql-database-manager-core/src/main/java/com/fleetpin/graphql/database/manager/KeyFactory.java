@@ -1,12 +1,39 @@
 package com.fleetpin.graphql.database.manager;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeSet;
+
 public interface KeyFactory {
 	static <T extends Table> DatabaseKey<T> createDatabaseKey(final String organisationId, final Class<T> type, final String id) {
 		return new DatabaseKey<>(organisationId, type, id);
 	}
 
+	static <T extends Table> DatabaseKey<T> createDatabaseKey(
+		final String organisationId,
+		final Class<T> type,
+		final String id,
+		final Collection<String> fields,
+		final ReadConsistency consistency
+	) {
+		var projection = fields == null ? null : Collections.unmodifiableSortedSet(new TreeSet<>(fields));
+		return new DatabaseKey<>(organisationId, type, id, projection, consistency);
+	}
+
 	static <T extends Table> DatabaseQueryKey<T> createDatabaseQueryKey(final String organisationId, final Query<T> query) {
-		return new DatabaseQueryKey<>(organisationId, query);
+		return new DatabaseQueryKey<>(organisationId, query, ReadConsistency.STRONG);
+	}
+
+	static <T extends Table> DatabaseQueryKey<T> createDatabaseQueryKey(
+		final String organisationId,
+		final Query<T> query,
+		final ReadConsistency consistency
+	) {
+		return new DatabaseQueryKey<>(organisationId, query, consistency);
+	}
+
+	static <T extends Table> DatabaseIndexKey<T> createDatabaseIndexKey(final String organisationId, final IndexQuery<T> query) {
+		return new DatabaseIndexKey<>(organisationId, query);
 	}
 
 	static <T extends Table> DatabaseQueryHistoryKey<T> createDatabaseQueryHistoryKey(String organisationId, QueryHistory<T> queryHistory) {
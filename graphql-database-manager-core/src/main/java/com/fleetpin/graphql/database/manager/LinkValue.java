@@ -0,0 +1,71 @@
+package com.fleetpin.graphql.database.manager;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+public class LinkValue<T extends Table> {
+
+	private final String organisationId;
+	private final T entity;
+	private final Class<? extends Table> type;
+	private final List<String> targetIds;
+	private final CompletableFuture<T> future;
+
+	public LinkValue(String organisationId, T entity, Class<? extends Table> type, List<String> targetIds, CompletableFuture<T> future) {
+		this.organisationId = organisationId;
+		this.entity = entity;
+		this.type = type;
+		this.targetIds = targetIds;
+		this.future = future;
+	}
+
+	public T getEntity() {
+		return entity;
+	}
+
+	public String getOrganisationId() {
+		return organisationId;
+	}
+
+	public Class<? extends Table> getType() {
+		return type;
+	}
+
+	public List<String> getTargetIds() {
+		return targetIds;
+	}
+
+	public CompletableFuture<T> getFuture() {
+		return future;
+	}
+
+	public void resolve() {
+		future.complete(entity);
+	}
+
+	public void fail(Throwable error) {
+		if (!future.isDone()) {
+			future.completeExceptionally(error);
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		LinkValue<?> linkValue = (LinkValue<?>) o;
+		return (
+			Objects.equals(organisationId, linkValue.organisationId) &&
+			Objects.equals(entity, linkValue.entity) &&
+			Objects.equals(type, linkValue.type) &&
+			Objects.equals(targetIds, linkValue.targetIds) &&
+			Objects.equals(future, linkValue.future)
+		);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(organisationId, entity, type, targetIds, future);
+	}
+}
@@ -0,0 +1,49 @@
+package com.fleetpin.graphql.database.manager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Queues link changes so every link made in a dispatch is sent to the driver together, letting it merge updates to
+ * rows shared between them.
+ */
+public class LinkWriter {
+
+	private final Function<List<LinkValue>, CompletableFuture<Void>> bulkLinker;
+	private final List<LinkValue> toLink = new ArrayList<>();
+
+	public LinkWriter(Function<List<LinkValue>, CompletableFuture<Void>> bulkLinker) {
+		this.bulkLinker = bulkLinker;
+	}
+
+	public int dispatchSize() {
+		synchronized (toLink) {
+			return toLink.size();
+		}
+	}
+
+	public CompletableFuture<Void> dispatch() {
+		List<LinkValue> toSend = null;
+		synchronized (toLink) {
+			if (!toLink.isEmpty()) {
+				toSend = new ArrayList<>(toLink);
+				toLink.clear();
+			}
+		}
+		if (toSend == null) {
+			return CompletableFuture.completedFuture(null);
+		} else {
+			return bulkLinker.apply(toSend);
+		}
+	}
+
+	public <T extends Table> CompletableFuture<T> link(String organisationId, T entity, Class<? extends Table> type, List<String> targetIds) {
+		var future = new CompletableFuture<T>();
+		var linkValue = new LinkValue<T>(organisationId, entity, type, targetIds, future);
+		synchronized (toLink) {
+			toLink.add(linkValue);
+		}
+		return future;
+	}
+}
@@ -0,0 +1,102 @@
+package com.fleetpin.graphql.database.manager;
+
+import com.fleetpin.graphql.database.manager.access.BatchModificationPermission;
+import com.fleetpin.graphql.database.manager.util.TableCoreUtil;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Queues permission checks so every entity modified in a dispatch is checked with one call. Results are remembered by
+ * table, id and revision for the life of the database so the same entity is not checked twice.
+ */
+public class PermissionChecker {
+
+	private final BatchModificationPermission permission;
+	private final List<Check> toCheck = new ArrayList<>();
+	private final Map<String, CompletableFuture<Boolean>> results = new HashMap<>();
+
+	public PermissionChecker(BatchModificationPermission permission) {
+		this.permission = permission;
+	}
+
+	public int dispatchSize() {
+		synchronized (toCheck) {
+			return toCheck.size();
+		}
+	}
+
+	public CompletableFuture<Void> dispatch() {
+		List<Check> toSend = null;
+		synchronized (toCheck) {
+			if (!toCheck.isEmpty()) {
+				toSend = new ArrayList<>(toCheck);
+				toCheck.clear();
+			}
+		}
+		if (toSend == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		final var checks = toSend;
+		CompletableFuture<List<Boolean>> future;
+		try {
+			future = permission.apply(checks.stream().map(check -> check.entity).collect(Collectors.toList()));
+		} catch (Throwable e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+		return future.handle((allowed, error) -> {
+			if (error == null && allowed.size() != checks.size()) {
+				error = new IllegalStateException("Permission returned " + allowed.size() + " results for " + checks.size() + " entities");
+			}
+			for (int i = 0; i < checks.size(); i++) {
+				var check = checks.get(i);
+				if (error == null) {
+					check.future.complete(allowed.get(i));
+				} else {
+					//do not remember failures so the entity can be checked again
+					if (check.key != null) {
+						synchronized (toCheck) {
+							results.remove(check.key);
+						}
+					}
+					check.future.completeExceptionally(error);
+				}
+			}
+			return null;
+		});
+	}
+
+	public CompletableFuture<Boolean> check(Table entity) {
+		//new entities have no id yet so can not be told apart
+		String key = null;
+		if (entity.getId() != null) {
+			key = TableCoreUtil.table(entity.getClass()) + ":" + entity.getId() + ":" + entity.getRevision();
+		}
+		synchronized (toCheck) {
+			if (key != null) {
+				var existing = results.get(key);
+				if (existing != null) {
+					return existing;
+				}
+			}
+			var check = new Check(key, entity);
+			if (key != null) {
+				results.put(key, check.future);
+			}
+			toCheck.add(check);
+			return check.future;
+		}
+	}
+
+	private static class Check {
+
+		private final String key;
+		private final Table entity;
+		private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+		private Check(String key, Table entity) {
+			this.key = key;
+			this.entity = entity;
+		}
+	}
+}
@@ -1,22 +1,55 @@
 package com.fleetpin.graphql.database.manager;
 
 import java.util.Objects;
+import java.util.SortedSet;
 
 public class Query<T extends Table> {
 
 	private final Class<T> type;
 	private final String startsWith;
 	private final String after;
+	private final String from;
+	private final String to;
+	private final String greaterThan;
+	private final String lessThan;
+	private final boolean descending;
+	private final QueryFilter filter;
 	private final Integer limit;
+	private final String cursor;
+	private final SortedSet<String> fields;
+	private final ReadConsistency consistency;
 
-	Query(Class<T> type, String startsWith, String after, Integer limit) {
+	Query(
+		Class<T> type,
+		String startsWith,
+		String after,
+		String from,
+		String to,
+		String greaterThan,
+		String lessThan,
+		boolean descending,
+		QueryFilter filter,
+		Integer limit,
+		String cursor,
+		SortedSet<String> fields,
+		ReadConsistency consistency
+	) {
 		if (type == null) {
 			throw new RuntimeException("type can not be null, did you forget to call .on(Table::class)?");
 		}
 		this.type = type;
 		this.startsWith = startsWith;
 		this.after = after;
+		this.from = from;
+		this.to = to;
+		this.greaterThan = greaterThan;
+		this.lessThan = lessThan;
+		this.descending = descending;
+		this.filter = filter;
 		this.limit = limit;
+		this.cursor = cursor;
+		this.fields = fields;
+		this.consistency = consistency;
 	}
 
 	public Class<T> getType() {
@@ -31,17 +64,84 @@ public class Query<T extends Table> {
 		return after;
 	}
 
+	/**
+	 * @return lowest id to include, null if there is no inclusive lower bound
+	 */
+	public String getFrom() {
+		return from;
+	}
+
+	/**
+	 * @return highest id to include, null if there is no inclusive upper bound
+	 */
+	public String getTo() {
+		return to;
+	}
+
+	/**
+	 * @return ids must be greater than this, null if there is no exclusive lower bound
+	 */
+	public String getGreaterThan() {
+		return greaterThan;
+	}
+
+	/**
+	 * @return ids must be less than this, null if there is no exclusive upper bound
+	 */
+	public String getLessThan() {
+		return lessThan;
+	}
+
+	/**
+	 * @return true if results come back in reverse id order
+	 */
+	public boolean isDescending() {
+		return descending;
+	}
+
+	/**
+	 * @return only return entities matching this, null to return everything
+	 */
+	public QueryFilter getFilter() {
+		return filter;
+	}
+
+	public boolean hasRange() {
+		return from != null || to != null || greaterThan != null || lessThan != null;
+	}
+
 	public Integer getLimit() {
 		return limit;
 	}
 
+	/**
+	 * @return position returned by a previous page of this query, null to start from the beginning
+	 */
+	public String getCursor() {
+		return cursor;
+	}
+
+	/**
+	 * @return the entity fields to read, null to read the whole entity
+	 */
+	public SortedSet<String> getFields() {
+		return fields;
+	}
+
+	/**
+	 * @return the consistency to read with, null to use the default of the database
+	 */
+	public ReadConsistency getConsistency() {
+		return consistency;
+	}
+
 	public boolean hasLimit() {
 		return getLimit() != null;
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(after, limit, startsWith, type);
+		return Objects.hash(after, from, to, greaterThan, lessThan, descending, filter, limit, startsWith, type, cursor, fields, consistency);
 	}
 
 	@Override
@@ -52,9 +152,18 @@ public class Query<T extends Table> {
 		Query other = (Query) obj;
 		return (
 			Objects.equals(after, other.after) &&
+			Objects.equals(from, other.from) &&
+			Objects.equals(to, other.to) &&
+			Objects.equals(greaterThan, other.greaterThan) &&
+			Objects.equals(lessThan, other.lessThan) &&
+			descending == other.descending &&
+			Objects.equals(filter, other.filter) &&
 			Objects.equals(limit, other.limit) &&
 			Objects.equals(startsWith, other.startsWith) &&
-			Objects.equals(type, other.type)
+			Objects.equals(type, other.type) &&
+			Objects.equals(cursor, other.cursor) &&
+			Objects.equals(fields, other.fields) &&
+			consistency == other.consistency
 		);
 	}
 }
@@ -1,5 +1,10 @@
 package com.fleetpin.graphql.database.manager;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.function.Consumer;
 
 public class QueryBuilder<V extends Table> {
@@ -7,7 +12,16 @@ public class QueryBuilder<V extends Table> {
 	private final Class<V> type;
 	private String startsWith;
 	private String after;
+	private String from;
+	private String to;
+	private String greaterThan;
+	private String lessThan;
+	private boolean descending;
+	private QueryFilter filter;
 	private Integer limit;
+	private String cursor;
+	private SortedSet<String> fields;
+	private ReadConsistency consistency;
 
 	private QueryBuilder(Class<V> type) {
 		this.type = type;
@@ -28,13 +42,79 @@ public class QueryBuilder<V extends Table> {
 		return this;
 	}
 
+	/**
+	 * Only ids from {@code from} to {@code to} inclusive, either may be null to leave that end open
+	 */
+	public QueryBuilder<V> between(String from, String to) {
+		this.from = from;
+		this.to = to;
+		return this;
+	}
+
+	/**
+	 * Only ids strictly greater than this
+	 */
+	public QueryBuilder<V> greaterThan(String id) {
+		this.greaterThan = id;
+		return this;
+	}
+
+	/**
+	 * Only ids strictly less than this
+	 */
+	public QueryBuilder<V> lessThan(String id) {
+		this.lessThan = id;
+		return this;
+	}
+
+	/**
+	 * Return results in reverse id order, combined with a limit this reads the last ids first. {@link #after(String)}
+	 * then skips ids from the given one downwards.
+	 */
+	public QueryBuilder<V> descending() {
+		this.descending = true;
+		return this;
+	}
+
+	/**
+	 * Only return entities matching the filter, calling this again requires both to match. Unlike filtering the results
+	 * the limit still counts matching entities.
+	 */
+	public QueryBuilder<V> filter(QueryFilter filter) {
+		this.filter = this.filter == null ? filter : this.filter.and(filter);
+		return this;
+	}
+
+	public QueryBuilder<V> cursor(String cursor) {
+		this.cursor = cursor;
+		return this;
+	}
+
+	/**
+	 * Only read these fields of each entity, the id, revision and links are always read. Returned entities are only
+	 * partially populated so should not be put back.
+	 */
+	public QueryBuilder<V> fields(Collection<String> fields) {
+		this.fields = fields == null ? null : Collections.unmodifiableSortedSet(new TreeSet<>(fields));
+		return this;
+	}
+
+	public QueryBuilder<V> fields(String... fields) {
+		return fields(Arrays.asList(fields));
+	}
+
+	public QueryBuilder<V> consistency(ReadConsistency consistency) {
+		this.consistency = consistency;
+		return this;
+	}
+
 	public QueryBuilder<V> applyMutation(Consumer<QueryBuilder<V>> mutator) {
 		mutator.accept((QueryBuilder<V>) this);
 		return (QueryBuilder<V>) this;
 	}
 
 	public Query<V> build() {
-		return new Query<V>(type, startsWith, after, limit);
+		return new Query<V>(type, startsWith, after, from, to, greaterThan, lessThan, descending, filter, limit, cursor, fields, consistency);
 	}
 
 	public static <V extends Table> QueryBuilder<V> create(Class<V> type) {
@@ -0,0 +1,176 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A condition on the fields of an entity that queries can apply where the entity is stored rather than after it has
+ * been read. Paths are field names, with dots to reach into nested objects. Values are compared as they would be
+ * stored, so pass them as the same types the entity fields have.
+ */
+public final class QueryFilter {
+
+	public enum Operator {
+		EQUAL,
+		NOT_EQUAL,
+		LESS_THAN,
+		LESS_THAN_OR_EQUAL,
+		GREATER_THAN,
+		GREATER_THAN_OR_EQUAL,
+		CONTAINS,
+		EXISTS,
+		NOT_EXISTS,
+		AND,
+		OR,
+		NOT,
+	}
+
+	private final Operator operator;
+	private final List<String> path;
+	private final Object value;
+	private final List<QueryFilter> filters;
+
+	private QueryFilter(Operator operator, String path, Object value, List<QueryFilter> filters) {
+		if (path != null && (path.isEmpty() || path.startsWith(".") || path.endsWith(".") || path.contains(".."))) {
+			throw new IllegalArgumentException("Invalid filter path " + path);
+		}
+		this.operator = operator;
+		this.path = path == null ? null : List.of(path.split("\\."));
+		this.value = value;
+		this.filters = filters;
+	}
+
+	public static QueryFilter equal(String path, Object value) {
+		return compare(Operator.EQUAL, path, value);
+	}
+
+	public static QueryFilter notEqual(String path, Object value) {
+		return compare(Operator.NOT_EQUAL, path, value);
+	}
+
+	public static QueryFilter lessThan(String path, Object value) {
+		return compare(Operator.LESS_THAN, path, value);
+	}
+
+	public static QueryFilter lessThanOrEqual(String path, Object value) {
+		return compare(Operator.LESS_THAN_OR_EQUAL, path, value);
+	}
+
+	public static QueryFilter greaterThan(String path, Object value) {
+		return compare(Operator.GREATER_THAN, path, value);
+	}
+
+	public static QueryFilter greaterThanOrEqual(String path, Object value) {
+		return compare(Operator.GREATER_THAN_OR_EQUAL, path, value);
+	}
+
+	/**
+	 * Matches a string field containing the value or a list field with an element equal to it
+	 */
+	public static QueryFilter contains(String path, Object value) {
+		return compare(Operator.CONTAINS, path, value);
+	}
+
+	/**
+	 * Matches when the field is stored, null fields are stored as null but empty strings are not stored at all
+	 */
+	public static QueryFilter exists(String path) {
+		return new QueryFilter(Operator.EXISTS, path, null, null);
+	}
+
+	public static QueryFilter notExists(String path) {
+		return new QueryFilter(Operator.NOT_EXISTS, path, null, null);
+	}
+
+	public static QueryFilter and(QueryFilter... filters) {
+		return combine(Operator.AND, filters);
+	}
+
+	public static QueryFilter or(QueryFilter... filters) {
+		return combine(Operator.OR, filters);
+	}
+
+	public static QueryFilter not(QueryFilter filter) {
+		return new QueryFilter(Operator.NOT, null, null, List.of(filter));
+	}
+
+	public QueryFilter and(QueryFilter filter) {
+		return and(this, filter);
+	}
+
+	public QueryFilter or(QueryFilter filter) {
+		return or(this, filter);
+	}
+
+	private static QueryFilter compare(Operator operator, String path, Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Filter value can not be null, use exists or notExists");
+		}
+		return new QueryFilter(operator, path, value, null);
+	}
+
+	private static QueryFilter combine(Operator operator, QueryFilter... filters) {
+		if (filters.length == 0) {
+			throw new IllegalArgumentException("Nothing to combine");
+		}
+		return new QueryFilter(operator, null, null, List.copyOf(Arrays.asList(filters)));
+	}
+
+	public Operator getOperator() {
+		return operator;
+	}
+
+	/**
+	 * @return the field names leading to the compared field, null for and, or and not
+	 */
+	public List<String> getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the value compared against, null for exists, and, or and not
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the filters combined by and, or and not, null otherwise
+	 */
+	public List<QueryFilter> getFilters() {
+		return filters;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(operator, path, value, filters);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (getClass() != obj.getClass()) return false;
+		QueryFilter other = (QueryFilter) obj;
+		return (
+			operator == other.operator &&
+			Objects.equals(path, other.path) &&
+			Objects.equals(value, other.value) &&
+			Objects.equals(filters, other.filters)
+		);
+	}
+}
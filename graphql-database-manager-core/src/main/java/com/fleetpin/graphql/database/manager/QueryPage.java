@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager;
+
+import java.util.List;
+
+/**
+ * One page of query results. The cursor is opaque, pass it back through {@link QueryBuilder#cursor(String)} to carry on
+ * from where this page stopped.
+ */
+public final class QueryPage<T extends Table> {
+
+	private final List<T> items;
+	private final String cursor;
+
+	public QueryPage(List<T> items, String cursor) {
+		this.items = items;
+		this.cursor = cursor;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return cursor for the next page, null when there are no more results
+	 */
+	public String getCursor() {
+		return cursor;
+	}
+
+	public boolean hasNextPage() {
+		return cursor != null;
+	}
+}
@@ -36,6 +36,9 @@ public abstract class Table {
 	@JsonIgnore
 	private HashMultimap<String, String> links = HashMultimap.create();
 
+	@JsonIgnore
+	private boolean partial;
+
 	@Id
 	public String getId() {
 		return id;
@@ -110,6 +113,16 @@ public abstract class Table {
 		return sourceOrganistaionId;
 	}
 
+	@JsonIgnore
+	@GraphQLIgnore
+	boolean isPartial() {
+		return partial;
+	}
+
+	void setPartial() {
+		this.partial = true;
+	}
+
 	void setLinks(String type, Collection<String> groupIds) {
 		this.links.removeAll(type);
 		this.links.putAll(type, groupIds);
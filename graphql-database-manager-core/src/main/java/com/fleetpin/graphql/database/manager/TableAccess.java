@@ -12,6 +12,13 @@ public interface TableAccess {
 		table.setSource(sourceTable, links, sourceOrganisationId);
 	}
 
+	/**
+	 * marks an entity that was read with only some of its fields so it can not be written back
+	 */
+	public static <T extends Table> void setTablePartial(final T table) {
+		table.setPartial();
+	}
+
 	public static <T extends Table> String getTableSourceOrganisation(final T table) {
 		return table.getSourceOrganisationId();
 	}
@@ -22,6 +22,13 @@ public class TableDataLoader<K> {
 		return loader.loadMany(keys).thenApply(r -> r.stream().map(t -> (T) t).collect(Collectors.toList()));
 	}
 
+	/**
+	 * Caches a value already read some other way, does nothing if the key is already cached
+	 */
+	public void prime(K key, Object value) {
+		((DataLoader<K, Object>) loader).prime(key, value);
+	}
+
 	public void clear(K key) {
 		loader.clear(key);
 	}
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Link hops to follow from an entity, each hop reaching the linked entities of one type. Start with {@link #to(Class)}
+ * and add further hops with {@link #then(Class)}.
+ */
+public final class Traversal<T extends Table> {
+
+	private final List<Hop> hops;
+
+	private Traversal(List<Hop> hops) {
+		this.hops = hops;
+	}
+
+	public static <T extends Table> Traversal<T> to(Class<T> type) {
+		return to(type, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param fanOut most links followed from any one entity, the lowest ids are picked when there are more
+	 */
+	public static <T extends Table> Traversal<T> to(Class<T> type, int fanOut) {
+		return new Traversal<T>(List.of(new Hop(type, fanOut)));
+	}
+
+	public <U extends Table> Traversal<U> then(Class<U> type) {
+		return then(type, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param fanOut most links followed from any one entity, the lowest ids are picked when there are more
+	 */
+	public <U extends Table> Traversal<U> then(Class<U> type, int fanOut) {
+		var hops = new ArrayList<>(this.hops);
+		hops.add(new Hop(type, fanOut));
+		return new Traversal<U>(Collections.unmodifiableList(hops));
+	}
+
+	List<Hop> getHops() {
+		return hops;
+	}
+
+	static final class Hop {
+
+		private final Class<? extends Table> type;
+		private final int fanOut;
+
+		private Hop(Class<? extends Table> type, int fanOut) {
+			if (fanOut <= 0) {
+				throw new IllegalArgumentException("fan out must be positive");
+			}
+			this.type = type;
+			this.fanOut = fanOut;
+		}
+
+		Class<? extends Table> getType() {
+			return type;
+		}
+
+		int getFanOut() {
+			return fanOut;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.access;
+
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.util.CompletableFutureUtil;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Checks every entity queued for modification in a dispatch at once. The returned list holds whether the entity at the
+ * same position may be modified.
+ */
+public interface BatchModificationPermission extends Function<List<Table>, CompletableFuture<List<Boolean>>> {
+	static BatchModificationPermission of(ModificationPermission permission) {
+		return entities -> CompletableFutureUtil.sequence(entities.stream().map(permission).collect(Collectors.toList()));
+	}
+}
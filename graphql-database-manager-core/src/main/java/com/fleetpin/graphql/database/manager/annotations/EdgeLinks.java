@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.annotations;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import com.fleetpin.graphql.database.manager.Table;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Stores links between this type and the listed types as a row per edge instead of inside the item, for link types
+ * with too many targets to carry on every read. Applies to both ends of the link so only one side needs to declare it.
+ *
+ * Edge links are not loaded with the entity, so they are not included in link ids and deleting an entity must delete
+ * links to remove its edges. Without a class path to scan deleting links looks for edges of every type, with one it only
+ * looks for edges of a type that declares this or that a declaring type names.
+ */
+@Retention(RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EdgeLinks {
+	Class<? extends Table>[] value();
+}
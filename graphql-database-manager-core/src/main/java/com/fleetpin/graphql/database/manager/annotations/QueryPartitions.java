@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.annotations;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Declares where rows of this type can live so queries skip the partitions that never hold them.
+ */
+@Retention(RUNTIME)
+@Target(ElementType.TYPE)
+public @interface QueryPartitions {
+	/**
+	 * @return false if the type is never written globally
+	 */
+	boolean global() default true;
+
+	/**
+	 * @return false if the type only lives in the top table, never in the tables beneath it
+	 */
+	boolean lowerTables() default true;
+}
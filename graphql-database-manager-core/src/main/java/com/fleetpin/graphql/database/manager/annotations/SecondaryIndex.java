@@ -21,4 +21,9 @@ import java.lang.annotation.Target;
 @Retention(RUNTIME)
 @Target(ElementType.METHOD)
 public @interface SecondaryIndex {
+	/**
+	 * Name of the index, left empty for the default secondaryOrganisation index. A type can have any number of named
+	 * indexes but only one default.
+	 */
+	public String value() default "";
 }
@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.annotations;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps the type in the updatedAt index so {@link com.fleetpin.graphql.database.manager.Database#queryChangedSince}
+ * can find what changed. Deleting an entity of the type leaves a tombstone row behind instead of removing it, so
+ * deletes are seen as changes too. Changing the links of an entity counts as a change to it, as does a link on the far
+ * side once the type has been seen by the driver or found on its class path.
+ */
+@Retention(RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TrackChanges {
+}
@@ -1,7 +1,10 @@
 package com.fleetpin.graphql.database.manager.util;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -16,4 +19,54 @@ public class CompletableFutureUtil {
 			.allOf(com.toArray(new CompletableFuture<?>[0]))
 			.thenApply(v -> com.stream().map(CompletableFuture::join).collect(Collectors.toList()));
 	}
+
+	/**
+	 * Starts the suppliers in order keeping at most concurrency of them outstanding at any time.
+	 * Every supplier is run even if an earlier one fails, the returned future fails with the first error.
+	 */
+	public static <T> CompletableFuture<List<T>> sequence(List<Supplier<CompletableFuture<T>>> suppliers, int concurrency) {
+		var futures = new ArrayList<CompletableFuture<T>>(suppliers.size());
+		for (int i = 0; i < suppliers.size(); i++) {
+			futures.add(new CompletableFuture<>());
+		}
+		var next = new AtomicInteger();
+		var lanes = Math.min(concurrency, suppliers.size());
+		for (int i = 0; i < lanes; i++) {
+			runNext(suppliers, futures, next);
+		}
+		return sequence(futures);
+	}
+
+	private static <T> void runNext(List<Supplier<CompletableFuture<T>>> suppliers, List<CompletableFuture<T>> futures, AtomicInteger next) {
+		//loop rather than recurse when futures complete straight away so large lists do not blow the stack
+		while (true) {
+			int index = next.getAndIncrement();
+			if (index >= suppliers.size()) {
+				return;
+			}
+			CompletableFuture<T> future;
+			try {
+				future = suppliers.get(index).get();
+			} catch (Throwable e) {
+				future = CompletableFuture.failedFuture(e);
+			}
+			var result = futures.get(index);
+			if (!future.isDone()) {
+				future.whenComplete((response, error) -> {
+					complete(result, response, error);
+					runNext(suppliers, futures, next);
+				});
+				return;
+			}
+			future.whenComplete((response, error) -> complete(result, response, error));
+		}
+	}
+
+	private static <T> void complete(CompletableFuture<T> future, T response, Throwable error) {
+		if (error == null) {
+			future.complete(response);
+		} else {
+			future.completeExceptionally(error);
+		}
+	}
 }
@@ -15,21 +15,29 @@ package com.fleetpin.graphql.database.manager.dynamo;
 import static com.fleetpin.graphql.database.manager.util.TableCoreUtil.table;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetpin.graphql.database.manager.ChangePosition;
 import com.fleetpin.graphql.database.manager.DatabaseDriver;
 import com.fleetpin.graphql.database.manager.DatabaseKey;
 import com.fleetpin.graphql.database.manager.DatabaseQueryHistoryKey;
 import com.fleetpin.graphql.database.manager.DatabaseQueryKey;
+import com.fleetpin.graphql.database.manager.IndexQuery;
 import com.fleetpin.graphql.database.manager.KeyFactory;
+import com.fleetpin.graphql.database.manager.LinkValue;
 import com.fleetpin.graphql.database.manager.PutValue;
 import com.fleetpin.graphql.database.manager.Query;
 import com.fleetpin.graphql.database.manager.QueryBuilder;
+import com.fleetpin.graphql.database.manager.QueryPage;
+import com.fleetpin.graphql.database.manager.ReadConsistency;
 import com.fleetpin.graphql.database.manager.RevisionMismatchException;
 import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.TableAccess;
 import com.fleetpin.graphql.database.manager.TableDataLoader;
+import com.fleetpin.graphql.database.manager.annotations.EdgeLinks;
 import com.fleetpin.graphql.database.manager.annotations.Hash;
 import com.fleetpin.graphql.database.manager.annotations.Hash.HashExtractor;
 import com.fleetpin.graphql.database.manager.annotations.HashLocator;
 import com.fleetpin.graphql.database.manager.annotations.HashLocator.HashQueryBuilder;
+import com.fleetpin.graphql.database.manager.annotations.TrackChanges;
 import com.fleetpin.graphql.database.manager.util.BackupItem;
 import com.fleetpin.graphql.database.manager.util.CompletableFutureUtil;
 import com.fleetpin.graphql.database.manager.util.HistoryCoreUtil;
@@ -37,31 +45,42 @@ import com.fleetpin.graphql.database.manager.util.TableCoreUtil;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.hash.Hashing;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.reactivestreams.Subscriber;
 import org.reflections.Reflections;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeAction;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValueUpdate;
 import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
@@ -69,8 +88,9 @@ import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
 import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest.Builder;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
 import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
-import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Select;
 import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 public class DynamoDb extends DatabaseDriver {
@@ -78,6 +98,13 @@ public class DynamoDb extends DatabaseDriver {
 	private static final AttributeValue REVISION_INCREMENT = AttributeValue.builder().n("1").build();
 	private static final int BATCH_WRITE_SIZE = 25;
 	private static final int MAX_RETRY = 10;
+	private static final int MAX_CONCURRENT_UPDATES = 50; //matches the default connection pool of the async client
+	private static final List<String> PROJECTED_ATTRIBUTES = List.of("organisationId", "id", "revision", "links", "deleted", "hashed");
+	private static final List<String> PROJECTED_FIELDS = List.of("id", "createdAt", "updatedAt");
+	private static final List<String> KEY_ATTRIBUTES = List.of("organisationId", "id", "deleted", "hashed");
+	//compared by identity, reads just enough of each row to tell whether it is live
+	private static final SortedSet<String> KEYS_ONLY = Collections.unmodifiableSortedSet(new TreeSet<>());
+	private static final SecondaryIndexMapping DEFAULT_SECONDARY_INDEX = new SecondaryIndexMapping("secondaryOrganisation", "secondaryOrganisation");
 
 	private final List<String> entityTables; //is in reverse order so easy to over ride as we go through
 	private final String historyTable;
@@ -89,10 +116,26 @@ public class DynamoDb extends DatabaseDriver {
 	private final int maxRetry;
 	private final boolean globalEnabled;
 	private final boolean hash;
+	private final boolean asyncLinks;
+	private final boolean tieredGets;
+	private final boolean secondaryFromIndex;
+	private final Map<String, SecondaryIndexMapping> secondaryIndexes;
+	private final HedgingMetrics hedgingMetrics;
+	private final Hedger getHedger;
+	private final Hedger queryHedger;
+	private final SingleFlight<DatabaseKey<?>, DynamoItem> singleFlight;
+	private final QueryPlanner planner;
 
 	private final ConcurrentHashMap<Class<? extends Table>, Optional<Hash.HashExtractor>> extractorCache = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Class<? extends Table>, Set<String>> edgeCache = new ConcurrentHashMap<>();
 
 	private final Map<String, HashQueryBuilder> hashKeyExpander;
+	//tables named by another type's EdgeLinks, only known when a class path is scanned
+	private final Set<String> edgeTargets = ConcurrentHashMap.newKeySet();
+	private final boolean classPathScanned;
+	//tables of types that track changes, from the class path scan and the types seen since
+	private final Set<String> trackedTables = ConcurrentHashMap.newKeySet();
+	private final Duration tombstoneRetention;
 
 	public DynamoDb(ObjectMapper mapper, List<String> entityTables, DynamoDbAsyncClient client, Supplier<String> idGenerator) {
 		this(mapper, entityTables, null, client, idGenerator, BATCH_WRITE_SIZE, MAX_RETRY, true, true, null);
@@ -109,6 +152,34 @@ public class DynamoDb extends DatabaseDriver {
 		boolean globalEnabled,
 		boolean hash,
 		String classPath
+	) {
+		this(
+			mapper,
+			entityTables,
+			historyTable,
+			client,
+			idGenerator,
+			batchWriteSize,
+			maxRetry,
+			globalEnabled,
+			hash,
+			classPath,
+			DynamoDbOptions.builder().build()
+		);
+	}
+
+	public DynamoDb(
+		ObjectMapper mapper,
+		List<String> entityTables,
+		String historyTable,
+		DynamoDbAsyncClient client,
+		Supplier<String> idGenerator,
+		int batchWriteSize,
+		int maxRetry,
+		boolean globalEnabled,
+		boolean hash,
+		String classPath,
+		DynamoDbOptions options
 	) {
 		this.mapper = mapper;
 		this.entityTables = entityTables;
@@ -120,13 +191,28 @@ public class DynamoDb extends DatabaseDriver {
 		this.maxRetry = maxRetry;
 		this.globalEnabled = globalEnabled;
 		this.hash = hash;
-
+		this.asyncLinks = options.isAsyncLinks();
+		this.tieredGets = options.isTieredGets();
+		this.secondaryFromIndex = options.isSecondaryFromIndex();
+		this.secondaryIndexes = options.getSecondaryIndexes();
+		this.tombstoneRetention = options.getTombstoneRetention();
+		this.hedgingMetrics = new HedgingMetrics();
+		//batch gets and query pages take very different times so each learns its own delay
+		this.getHedger = new Hedger(options.getHedgePercentile(), options.getHedgeBudget(), hedgingMetrics);
+		this.queryHedger = new Hedger(options.getHedgePercentile(), options.getHedgeBudget(), hedgingMetrics);
+		this.planner = new QueryPlanner(entityTables, globalEnabled, options.getEmptyPartitionTtl());
+		var window = options.getSingleFlightWindow();
+		this.singleFlight = window == null ? null : new SingleFlight<>(window, maxBatchSize(), this::readItems);
+
+		this.classPathScanned = classPath != null;
 		if (classPath != null) {
 			var tableObjects = new Reflections(classPath).getSubTypesOf(Table.class);
 
 			this.hashKeyExpander = new HashMap<>();
 
 			for (var obj : tableObjects) {
+				edgeTargets.addAll(getEdgeTables(obj));
+				track(obj);
 				HashLocator hashLocator = null;
 				Class<?> tmp = obj;
 				while (hashLocator == null && tmp != null) {
@@ -160,6 +246,10 @@ public class DynamoDb extends DatabaseDriver {
 	}
 
 	public <T extends Table> CompletableFuture<T> delete(String organisationId, T entity) {
+		return write(() -> deleteEntity(organisationId, entity));
+	}
+
+	private <T extends Table> CompletableFuture<T> deleteEntity(String organisationId, T entity) {
 		String sourceOrganisation = getSourceOrganisationId(entity);
 
 		if (!sourceOrganisation.equals(organisationId)) {
@@ -168,7 +258,9 @@ public class DynamoDb extends DatabaseDriver {
 		}
 
 		String sourceTable = getSourceTable(entity);
-		if (sourceTable.equals(entityTable)) {
+		if (sourceTable.equals(entityTable) && tracksChanges(entity.getClass())) {
+			return tombstone(organisationId, entity);
+		} else if (sourceTable.equals(entityTable)) {
 			Map<String, AttributeValue> key = mapWithKeys(organisationId, entity);
 
 			return client
@@ -206,6 +298,7 @@ public class DynamoDb extends DatabaseDriver {
 			//we mark as deleted not actual delete
 			Map<String, AttributeValue> item = mapWithKeys(organisationId, entity, true);
 			item.put("deleted", AttributeValue.builder().bool(true).build());
+			changed(item, organisationId, entity.getClass(), Instant.now());
 
 			return client
 				.putItem(request -> request.tableName(entityTable).item(item))
@@ -215,6 +308,87 @@ public class DynamoDb extends DatabaseDriver {
 		}
 	}
 
+	/**
+	 * Replaces the row with one that only marks it deleted so the updatedAt index still holds the delete, it expires once
+	 * syncs no longer need it
+	 */
+	private <T extends Table> CompletableFuture<T> tombstone(String organisationId, T entity) {
+		var now = Instant.now();
+		Map<String, AttributeValue> item = mapWithKeys(organisationId, entity, true);
+		item.put("deleted", AttributeValue.builder().bool(true).build());
+		item.put("ttl", AttributeValue.builder().n(Long.toString(now.plus(tombstoneRetention).getEpochSecond())).build());
+		changed(item, organisationId, entity.getClass(), now);
+
+		return client
+			.putItem(request ->
+				request
+					.tableName(entityTable)
+					.item(item)
+					.applyMutation(mutator -> {
+						if (entity.getRevision() == 0) {
+							mutator.conditionExpression("attribute_not_exists(revision)");
+						} else {
+							Map<String, AttributeValue> variables = new HashMap<>();
+							variables.put(":revision", AttributeValue.builder().n(Long.toString(entity.getRevision())).build());
+							mutator.expressionAttributeValues(variables);
+							mutator.conditionExpression("revision = :revision");
+						}
+					})
+			)
+			.thenApply(response -> {
+				return entity;
+			})
+			.exceptionally(failure -> {
+				if (failure.getCause() instanceof ConditionalCheckFailedException) {
+					throw new RevisionMismatchException(failure.getCause());
+				}
+				Throwables.throwIfUnchecked(failure);
+				throw new RuntimeException(failure);
+			});
+	}
+
+	/**
+	 * Adds the updatedAt index keys to rows of types that track their changes
+	 */
+	private void changed(Map<String, AttributeValue> item, String organisationId, Class<? extends Table> type, Instant at) {
+		if (track(type)) {
+			item.put("organisationIdType", AttributeValue.builder().s(organisationId + ":" + table(type)).build());
+			item.put("updatedAt", AttributeValue.builder().n(Long.toString(at.toEpochMilli())).build());
+		}
+	}
+
+	/**
+	 * Moves the updatedAt index keys of a row in the table along with an update of its links, the far side of a link
+	 * is only known by table so its type has to have been seen or scanned to be stamped
+	 *
+	 * @return the assignments to add to the update, null when the table does not track changes
+	 */
+	private String stampChanged(Map<String, AttributeValue> values, String organisationId, String table) {
+		if (!trackedTables.contains(table)) {
+			return null;
+		}
+		values.put(":organisationIdType", AttributeValue.builder().s(organisationId + ":" + table).build());
+		values.put(":updatedAt", AttributeValue.builder().n(Long.toString(Instant.now().toEpochMilli())).build());
+		return "organisationIdType = :organisationIdType, updatedAt = :updatedAt";
+	}
+
+	private boolean track(Class<? extends Table> type) {
+		if (!tracksChanges(type)) {
+			return false;
+		}
+		trackedTables.add(table(type));
+		return true;
+	}
+
+	private static boolean tracksChanges(Class<?> type) {
+		for (Class<?> tmp = type; tmp != null; tmp = tmp.getSuperclass()) {
+			if (tmp.getDeclaredAnnotation(TrackChanges.class) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private CompletableFuture<?> conditionalBulkWrite(List<PutValue> items) {
 		var all = items
 			.stream()
@@ -332,6 +506,10 @@ public class DynamoDb extends DatabaseDriver {
 
 	@Override
 	public CompletableFuture<Void> bulkPut(List<PutValue> values) {
+		return write(() -> putValues(values));
+	}
+
+	private CompletableFuture<Void> putValues(List<PutValue> values) {
 		try {
 			var conditional = Lists.partition(values.stream().filter(v -> v.getCheck()).collect(Collectors.toList()), batchWriteSize);
 			var nonConditional = values.stream().filter(v -> !v.getCheck()).collect(Collectors.toList());
@@ -392,6 +570,13 @@ public class DynamoDb extends DatabaseDriver {
 			var index = AttributeValue.builder().s(table(entity.getClass()) + ":" + secondaryOrganisation).build();
 			item.put("secondaryOrganisation", index);
 		}
+		TableUtil
+			.getSecondaryIndexes(entity)
+			.forEach((name, value) -> {
+				var index = AttributeValue.builder().s(table(entity.getClass()) + ":" + value).build();
+				item.put(secondaryIndex(name).getAttribute(), index);
+			});
+		changed(item, organisationId, entity.getClass(), entity.getUpdatedAt());
 		return item;
 	}
 
@@ -439,7 +624,8 @@ public class DynamoDb extends DatabaseDriver {
 
 	@Override
 	public int maxBatchSize() {
-		int size = 100 / entityTables.size();
+		//tiered reads only ever send the keys to one table per request
+		int size = tieredGets ? 100 : 100 / entityTables.size();
 		if (globalEnabled) {
 			size = size / 2;
 		}
@@ -448,6 +634,56 @@ public class DynamoDb extends DatabaseDriver {
 
 	@Override
 	public <T extends Table> CompletableFuture<List<T>> get(List<DatabaseKey<T>> keys) {
+		CompletableFuture<List<DynamoItem>> items;
+		if (singleFlight == null) {
+			items = readItems(keys);
+		} else {
+			items = CompletableFutureUtil.sequence(keys.stream().map(singleFlight::load));
+		}
+		return items.thenApply(found -> {
+			var toReturn = new ArrayList<T>(keys.size());
+			for (int i = 0; i < keys.size(); i++) {
+				var item = found.get(i);
+				var key = keys.get(i);
+				toReturn.add(item == null ? null : convertTo(item, key.getType(), key.getFields()));
+			}
+			return toReturn;
+		});
+	}
+
+	/**
+	 * @return the layered row for each key in the same order, null where there is none
+	 */
+	private CompletableFuture<List<DynamoItem>> readItems(List<? extends DatabaseKey<?>> keys) {
+		//a batch can only carry one projection and consistency per table so each combination is read on its own
+		var groups = keys.stream().collect(Collectors.groupingBy(key -> Arrays.asList(key.getFields(), key.getConsistency())));
+		if (groups.size() <= 1) {
+			return keys.isEmpty() ? CompletableFuture.completedFuture(List.of()) : readItems(keys, keys.get(0).getFields(), keys.get(0).getConsistency());
+		}
+		var futures = groups
+			.values()
+			.stream()
+			.map(group ->
+				readItems(group, group.get(0).getFields(), group.get(0).getConsistency())
+					.thenApply(results -> {
+						var found = new HashMap<DatabaseKey<?>, DynamoItem>();
+						for (int i = 0; i < group.size(); i++) {
+							found.put(group.get(i), results.get(i));
+						}
+						return found;
+					})
+			)
+			.collect(Collectors.toList());
+		return CompletableFutureUtil
+			.sequence(futures)
+			.thenApply(results -> {
+				var found = new HashMap<DatabaseKey<?>, DynamoItem>();
+				results.forEach(found::putAll);
+				return keys.stream().map(found::get).collect(Collectors.toList());
+			});
+	}
+
+	private CompletableFuture<List<DynamoItem>> readItems(List<? extends DatabaseKey<?>> keys, SortedSet<String> fields, ReadConsistency consistency) {
 		List<Map<String, AttributeValue>> entries = new ArrayList<>(keys.size() * 2);
 
 		keys.forEach(key -> {
@@ -461,27 +697,174 @@ public class DynamoDb extends DatabaseDriver {
 			}
 		});
 
+		var flattener = new Flattener(this.entityTables, false);
+		if (tieredGets) {
+			return getTiered(entityTables.size() - 1, entries, fields, consistency, flattener).thenApply(__ -> toItems(keys, flattener));
+		}
+
 		Map<String, KeysAndAttributes> items = new HashMap<>();
 
 		for (String table : this.entityTables) {
-			items.put(table, KeysAndAttributes.builder().keys(entries).consistentRead(true).build());
-		}
-		return getItems(0, items, new Flattener(this.entityTables, false))
-			.thenApply(flattener -> {
-				var toReturn = new ArrayList<T>();
-				for (var key : keys) {
-					var item = flattener.get(getExtractor(key.getType()), key.getType(), key.getId());
-					if (item == null) {
-						toReturn.add(null);
-					} else {
-						toReturn.add(item.convertTo(mapper, key.getType()));
+			items.put(table, keysAndAttributes(entries, fields, consistency));
+		}
+		return getItems(0, items, flattener::add).thenApply(__ -> toItems(keys, flattener));
+	}
+
+	private KeysAndAttributes keysAndAttributes(List<Map<String, AttributeValue>> entries, SortedSet<String> fields, ReadConsistency consistency) {
+		return KeysAndAttributes
+			.builder()
+			.keys(entries)
+			.consistentRead(consistency != ReadConsistency.EVENTUAL)
+			.applyMutation(builder -> {
+				if (fields != null) {
+					Map<String, String> names = new HashMap<>();
+					builder.projectionExpression(projection(fields, names)).expressionAttributeNames(names);
+				}
+			})
+			.build();
+	}
+
+	/**
+	 * Builds a projection of the row attributes needed to layer and convert an item plus the requested top level fields
+	 * of the item itself.
+	 */
+	private static String projection(SortedSet<String> fields, Map<String, String> names) {
+		if (fields == KEYS_ONLY) {
+			for (var attribute : KEY_ATTRIBUTES) {
+				names.put("#" + attribute, attribute);
+			}
+			names.put("#item", "item");
+			names.put("#f0", "id");
+			return KEY_ATTRIBUTES.stream().map(attribute -> "#" + attribute).collect(Collectors.joining(", ")) + ", #item.#f0";
+		}
+		var expression = new ArrayList<String>();
+		for (var attribute : PROJECTED_ATTRIBUTES) {
+			names.put("#" + attribute, attribute);
+			expression.add("#" + attribute);
+		}
+		names.put("#item", "item");
+		var itemFields = new TreeSet<>(fields);
+		itemFields.addAll(PROJECTED_FIELDS);
+		int i = 0;
+		for (var field : itemFields) {
+			var name = "#f" + i++;
+			names.put(name, field);
+			expression.add("#item." + name);
+		}
+		return String.join(", ", expression);
+	}
+
+	private List<DynamoItem> toItems(List<? extends DatabaseKey<?>> keys, Flattener flattener) {
+		return keys.stream().map(key -> flattener.get(getExtractor(key.getType()), key.getType(), key.getId())).collect(Collectors.toList());
+	}
+
+	private <T extends Table> T convertTo(DynamoItem item, Class<T> type, SortedSet<String> fields) {
+		var entity = item.convertTo(mapper, type);
+		if (entity != null && fields != null) {
+			TableAccess.setTablePartial(entity);
+		}
+		return entity;
+	}
+
+	/**
+	 * Reads the keys from one table at a time starting with the top table. Only keys that are missing or are a links only
+	 * overlay are passed down to the table below, a full item or a tombstone already decides what the flattener returns.
+	 * A full item still picks up the links of the tables below it, those are read without the item.
+	 */
+	private CompletableFuture<Void> getTiered(
+		int tier,
+		List<Map<String, AttributeValue>> entries,
+		SortedSet<String> fields,
+		ReadConsistency consistency,
+		Flattener flattener
+	) {
+		var table = entityTables.get(tier);
+		var items = Map.of(table, keysAndAttributes(entries, fields, consistency));
+		var resolved = new HashSet<String>();
+		var full = new HashSet<String>();
+		return getItems(
+				0,
+				items,
+				(responseTable, found) -> {
+					synchronized (flattener) {
+						flattener.add(responseTable, found);
+					}
+					for (var item : found) {
+						var key = item.get("organisationId").s() + ":" + item.get("id").s();
+						var deleted = item.get("deleted");
+						if (deleted != null && deleted.bool()) {
+							resolved.add(key);
+						} else if (item.get("item") != null) {
+							resolved.add(key);
+							full.add(key);
+						}
 					}
 				}
-				return toReturn;
+			)
+			.thenCompose(__ -> {
+				if (tier == 0) {
+					return CompletableFuture.completedFuture(null);
+				}
+				var misses = entries
+					.stream()
+					.filter(entry -> !resolved.contains(entry.get("organisationId").s() + ":" + entry.get("id").s()))
+					.collect(Collectors.toList());
+				var linked = entries
+					.stream()
+					.filter(entry -> full.contains(entry.get("organisationId").s() + ":" + entry.get("id").s()))
+					.collect(Collectors.toList());
+				var futures = new ArrayList<CompletableFuture<Void>>();
+				if (!misses.isEmpty()) {
+					futures.add(getTiered(tier - 1, misses, fields, consistency, flattener));
+				}
+				if (!linked.isEmpty()) {
+					futures.add(linksBelow(tier, linked, consistency, flattener));
+				}
+				return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
 			});
 	}
 
-	private CompletableFuture<Flattener> getItems(int count, Map<String, KeysAndAttributes> items, Flattener flattener) {
+	/**
+	 * Reads just the links of the keys from every table below the tier so they merge under the full item found in it.
+	 */
+	private CompletableFuture<Void> linksBelow(int tier, List<Map<String, AttributeValue>> entries, ReadConsistency consistency, Flattener flattener) {
+		var below = entityTables.subList(0, tier);
+		var futures = Lists
+			.partition(entries, 100 / below.size())
+			.stream()
+			.map(chunk -> {
+				Map<String, KeysAndAttributes> items = new HashMap<>();
+				for (var table : below) {
+					items.put(
+						table,
+						KeysAndAttributes
+							.builder()
+							.keys(chunk)
+							.consistentRead(consistency != ReadConsistency.EVENTUAL)
+							.projectionExpression("#organisationId, #id, #hashed, #links")
+							.expressionAttributeNames(Map.of("#organisationId", "organisationId", "#id", "id", "#hashed", "hashed", "#links", "links"))
+							.build()
+					);
+				}
+				return getItems(
+					0,
+					items,
+					(table, found) -> {
+						synchronized (flattener) {
+							flattener.add(table, found);
+						}
+					}
+				);
+			})
+			.collect(Collectors.toList());
+		return CompletableFutureUtil.sequence(futures).thenApply(__ -> null);
+	}
+
+	private CompletableFuture<Void> getItems(
+		int count,
+		Map<String, KeysAndAttributes> items,
+		BiConsumer<String, List<Map<String, AttributeValue>>> consumer
+	) {
 		if (count > maxRetry) {
 			throw new RuntimeException("Failed to get keys from dynamo after " + maxRetry + " attempts");
 		}
@@ -489,18 +872,15 @@ public class DynamoDb extends DatabaseDriver {
 		return CompletableFuture
 			.supplyAsync(
 				() -> {
-					return client
-						.batchGetItem(builder -> builder.requestItems(items))
+					return getHedger
+						.send(() -> client.batchGetItem(builder -> builder.requestItems(items)))
 						.thenCompose(response -> {
-							var responseItems = response.responses();
-							entityTables.forEach(table -> {
-								flattener.add(table, responseItems.get(table));
-							});
+							response.responses().forEach(consumer);
 
 							if (!response.unprocessedKeys().isEmpty()) {
-								return getItems(count, response.unprocessedKeys(), flattener);
+								return getItems(count, response.unprocessedKeys(), consumer);
 							} else {
-								return CompletableFuture.completedFuture(flattener);
+								return CompletableFuture.<Void>completedFuture(null);
 							}
 						});
 				},
@@ -515,41 +895,257 @@ public class DynamoDb extends DatabaseDriver {
 		Table entry,
 		Class<T> type,
 		TableDataLoader<DatabaseKey<Table>> items
+	) {
+		return getViaLinks(organisationId, entry, type, items, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public <T extends Table> CompletableFuture<List<T>> getViaLinks(
+		String organisationId,
+		Table entry,
+		Class<T> type,
+		TableDataLoader<DatabaseKey<Table>> items,
+		int limit
 	) {
 		if (getExtractor(entry.getClass()).isPresent() || getExtractor(type).isPresent()) {
 			throw new UnsupportedOperationException("hashed objects can not be linked");
 		}
 
 		String tableTarget = table(type);
-		var links = getLinks(entry).get(tableTarget);
 		Class<Table> query = (Class<Table>) type;
-		List<DatabaseKey<Table>> keys = links.stream().map(link -> createDatabaseKey(organisationId, query, link)).collect(Collectors.toList());
+		if (isEdge(entry.getClass(), type)) {
+			return getEdges(organisationId, edgePrefix(table(entry.getClass()), entry.getId(), tableTarget))
+				.thenCompose(edges -> {
+					var keys = limit(edges.get(tableTarget), limit).map(link -> createDatabaseKey(organisationId, query, link)).collect(Collectors.toList());
+					return items.loadMany(keys);
+				});
+		}
+		var links = getLinks(entry).get(tableTarget);
+		List<DatabaseKey<Table>> keys = limit(links, limit).map(link -> createDatabaseKey(organisationId, query, link)).collect(Collectors.toList());
 		return items.loadMany(keys);
 	}
 
+	/**
+	 * Picks the lowest ids when there are more links than the limit so the same ones are followed every time
+	 */
+	private static Stream<String> limit(Collection<String> links, int limit) {
+		if (links.size() <= limit) {
+			return links.stream();
+		}
+		return links.stream().sorted().limit(limit);
+	}
+
 	@Override
 	public <T extends Table> CompletableFuture<List<T>> query(DatabaseQueryKey<T> key) {
-		var futures = entityTables
+		return queryPage(key).thenApply(QueryPage::getItems);
+	}
+
+	@Override
+	public <T extends Table> CompletableFuture<QueryPage<T>> queryPage(DatabaseQueryKey<T> key) {
+		var query = key.getQuery();
+		var merged = singleFlight == null ? merge(key) : singleFlight.join(key, () -> merge(key));
+		return merged.thenCompose(merger ->
+			merger
+				.getFuture()
+				.thenApply(items -> {
+					var results = items.stream().map(item -> convertTo(item, query.getType(), query.getFields())).collect(Collectors.toList());
+					var next = merger.getCursor();
+					return new QueryPage<>(results, next == null ? null : next.encode(mapper));
+				})
+		);
+	}
+
+	/**
+	 * Reads the rows of a query without converting them so a shared read can give every caller its own entities
+	 */
+	private CompletableFuture<QueryMerger> merge(DatabaseQueryKey<?> key) {
+		return merge(key, false);
+	}
+
+	/**
+	 * @param keysOnly read every matching row but only what is needed to tell if it is live, the limit and cursor are
+	 * ignored
+	 */
+	private CompletableFuture<QueryMerger> merge(DatabaseQueryKey<?> key, boolean keysOnly) {
+		var query = key.getQuery();
+		var limit = keysOnly ? null : query.getLimit();
+		var cursor = keysOnly || query.getCursor() == null ? null : QueryCursor.decode(mapper, query.getCursor());
+		var merger = new QueryMerger(
+			this.entityTables,
+			limit,
+			query.isDescending(),
+			(table, organisationId) -> planner.learn(table, organisationId, query, List.of())
+		);
+		if (cursor != null) {
+			merger.skipThrough(cursor.getLast());
+		}
+		IdRange range = null;
+		if (query.hasRange()) {
+			if (getExtractor(query.getType()).isPresent()) {
+				throw new UnsupportedOperationException("Range conditions are not supported on hashed types");
+			}
+			var prefix = mapWithKeys(key.getOrganisationId(), query.getType(), query.getStartsWith()).get("id").s();
+			range = IdRange.of(prefix, table(query.getType()) + ":", query);
+			if (range.isEmpty()) {
+				return merger.getFuture().thenApply(__ -> merger);
+			}
+			merger.range(range);
+		}
+		var filter = query.getFilter() == null ? null : new FilterExpression(mapper, query.getFilter());
+
+		//filtered rows are matched again once merged so the filtered fields have to be read
+		SortedSet<String> fields = query.getFields();
+		if (keysOnly) {
+			fields = filter == null ? KEYS_ONLY : new TreeSet<>(FilterExpression.fields(query.getFilter()));
+		} else if (fields != null && filter != null) {
+			fields = new TreeSet<>(fields);
+			fields.addAll(FilterExpression.fields(query.getFilter()));
+		}
+
+		//every partition has to be known to the merger before any of them start returning pages
+		var plan = planner.plan(key.getOrganisationId(), query.getType());
+		if (filter != null && plan.size() > 1) {
+			merger.filter(filter::matches);
+		}
+		var subscribers = new ArrayList<Subscriber<QueryResponse>>();
+		var startKeys = new ArrayList<Map<String, AttributeValue>>();
+		for (var pair : plan) {
+			var position = cursor == null ? null : cursor.get(pair.getKey(), pair.getValue());
+			if (position != null && position.isDone()) {
+				merger.addDone(pair.getKey(), pair.getValue());
+				subscribers.add(null);
+				startKeys.add(null);
+			} else {
+				subscribers.add(merger.add(pair.getKey(), pair.getValue()));
+				startKeys.add(position == null ? null : position.getStartKey());
+			}
+		}
+		for (int i = 0; i < plan.size(); i++) {
+			if (subscribers.get(i) != null) {
+				//only the lowest partition can drop rows where they are read, a dropped row higher up would no longer hide it
+				var pushed = i == 0 ? filter : null;
+				//a filtered page may hold few matches so let dynamo fill it, the merger stops reading at the limit
+				var pageLimit = pushed == null ? limit : null;
+				var request = queryRequest(
+					plan.get(i).getValue(),
+					plan.get(i).getKey(),
+					query,
+					range,
+					pushed,
+					fields,
+					pageLimit,
+					key.getConsistency(),
+					startKeys.get(i)
+				);
+				query(request, subscribers.get(i));
+			}
+		}
+
+		return merger.getFuture().thenApply(__ -> merger);
+	}
+
+	@Override
+	public <T extends Table> CompletableFuture<Integer> count(DatabaseQueryKey<T> key) {
+		var query = key.getQuery();
+		var plan = planner.plan(key.getOrganisationId(), query.getType());
+		//with nothing layered over a single partition dynamo can count its live rows itself, exclusive range ends can only be
+		//applied to the rows
+		if (plan.size() == 1 && !query.hasRange()) {
+			var filter = query.getFilter() == null ? null : new FilterExpression(mapper, query.getFilter());
+			var request = queryRequest(plan.get(0).getValue(), plan.get(0).getKey(), query, null, filter, null, null, key.getConsistency(), null);
+			var names = new HashMap<>(request.expressionAttributeNames());
+			names.put("#item", "item");
+			var live = filter == null ? "attribute_exists(#item)" : "attribute_exists(#item) AND " + filter.getExpression();
+			var counting = request.toBuilder().select(Select.COUNT).filterExpression(live).expressionAttributeNames(names).build();
+			var total = new AtomicInteger();
+			return client.queryPaginator(counting).subscribe(response -> total.addAndGet(response.count())).thenApply(__ -> total.get());
+		}
+		return merge(key, true).thenCompose(QueryMerger::getFuture).thenApply(List::size);
+	}
+
+	@Override
+	public <T extends Table> CompletableFuture<List<Boolean>> exists(List<DatabaseKey<T>> keys) {
+		//a batch only has one consistency, a strong read answers an eventual one as well
+		var eventual = keys.stream().allMatch(key -> key.getConsistency() == ReadConsistency.EVENTUAL);
+		var consistency = eventual ? ReadConsistency.EVENTUAL : ReadConsistency.STRONG;
+		return readItems(keys, KEYS_ONLY, consistency)
+			.thenApply(found -> found.stream().map(item -> item != null && item.getItem().get("item") != null).collect(Collectors.toList()));
+	}
+
+	@Override
+	public <T extends Table> CompletableFuture<List<ChangePosition>> changedSince(String organisationId, Class<T> type, ChangePosition after, int limit) {
+		if (!tracksChanges(type)) {
+			throw new UnsupportedOperationException(type.getSimpleName() + " does not track changes");
+		}
+		if (getExtractor(type).isPresent()) {
+			throw new UnsupportedOperationException("hashed types can not track changes");
+		}
+		var prefix = table(type) + ":";
+		var futures = planner
+			.partitions(organisationId, type)
 			.stream()
-			.flatMap(table -> {
-				if (globalEnabled) {
-					return Stream.of(Map.entry(table, "global"), Map.entry(table, key.getOrganisationId()));
-				} else {
-					return Stream.of(Map.entry(table, key.getOrganisationId()));
-				}
+			.map(partition -> {
+				var request = QueryRequest
+					.builder()
+					.tableName(partition.getKey())
+					.indexName("updatedAt")
+					.keyConditionExpression("organisationIdType = :organisationIdType AND updatedAt >= :since")
+					.expressionAttributeValues(
+						Map.of(
+							":organisationIdType",
+							AttributeValue.builder().s(partition.getValue() + ":" + table(type)).build(),
+							":since",
+							AttributeValue.builder().n(Long.toString(after.getUpdatedAt().toEpochMilli())).build()
+						)
+					)
+					.limit(limit)
+					.build();
+				return changedSince(request, prefix, after, limit, new ArrayList<>());
 			})
-			.map(pair -> {
-				return query(pair.getValue(), pair.getKey(), key.getQuery());
+			.collect(Collectors.toList());
+		return CompletableFutureUtil
+			.sequence(futures.stream())
+			.thenApply(partitions -> {
+				//an id changed in more than one partition is only returned once, at its latest position
+				var latest = new HashMap<String, ChangePosition>();
+				for (var partition : partitions) {
+					for (var position : partition) {
+						latest.merge(position.getId(), position, (a, b) -> a.compareTo(b) > 0 ? a : b);
+					}
+				}
+				return latest.values().stream().sorted().limit(limit).collect(Collectors.toList());
 			});
+	}
 
-		var future = CompletableFutureUtil.sequence(futures);
-
-		return future.thenApply(results -> {
-			var flattener = new Flattener(this.entityTables, false);
-
-			results.forEach(list -> flattener.addItems(list));
-			return flattener.results(mapper, key.getQuery().getType(), Optional.ofNullable(key.getQuery().getLimit()));
-		});
+	/**
+	 * Reads a partition of the updatedAt index until the first changes after the position are known. Rows written in the
+	 * same millisecond come back in any order so reading stops once a page moves past the time of the change at the limit.
+	 */
+	private CompletableFuture<List<ChangePosition>> changedSince(
+		QueryRequest request,
+		String prefix,
+		ChangePosition after,
+		int limit,
+		List<ChangePosition> found
+	) {
+		return client
+			.query(request)
+			.thenCompose(response -> {
+				Instant last = null;
+				for (var item : response.items()) {
+					last = Instant.ofEpochMilli(Long.parseLong(item.get("updatedAt").n()));
+					var position = new ChangePosition(last, item.get("id").s().substring(prefix.length()));
+					if (position.compareTo(after) > 0) {
+						found.add(position);
+					}
+				}
+				found.sort(null);
+				var full = found.size() >= limit && last != null && last.isAfter(found.get(limit - 1).getUpdatedAt());
+				if (full || !response.hasLastEvaluatedKey() || response.lastEvaluatedKey().isEmpty()) {
+					return CompletableFuture.completedFuture(found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found);
+				}
+				return changedSince(request.toBuilder().exclusiveStartKey(response.lastEvaluatedKey()).build(), prefix, after, limit, found);
+			});
 	}
 
 	@Override
@@ -709,6 +1305,136 @@ public class DynamoDb extends DatabaseDriver {
 		});
 	}
 
+	@Override
+	public <T extends Table> CompletableFuture<QueryPage<T>> queryGlobal(IndexQuery<T> query) {
+		if (query.getValue() == null || query.isDescending() || query.getIndex() != null) {
+			throw new UnsupportedOperationException("the global index can only be looked up by a single value");
+		}
+		var type = query.getType();
+		if (query.isExact()) {
+			return queryGlobal(type, query.getValue()).thenApply(items -> new QueryPage<>(items, null));
+		}
+		var limit = query.getLimit();
+		var cursor = query.getCursor();
+		var id = AttributeValue.builder().s(table(type) + ":" + query.getValue()).build();
+		int tier = entityTables.size() - 1;
+		Map<String, AttributeValue> startKey = null;
+		if (cursor != null) {
+			var position = IndexCursor.decode(mapper, cursor);
+			tier = entityTables.indexOf(position.getTable());
+			if (tier == -1) {
+				throw new IllegalArgumentException("Index cursor is for unknown table " + position.getTable());
+			}
+			//an empty key starts at the top of the table
+			startKey = position.getStartKey().isEmpty() ? null : position.getStartKey();
+		}
+		return queryGlobal(type, id, tier, startKey, limit, new ArrayList<>());
+	}
+
+	/**
+	 * Pages through one table at a time from the top table down. Rows from a lower table are checked against the tables
+	 * above it, a row there with an item or tombstone already decided the entity so the lower row is dropped, links only
+	 * rows are layered on.
+	 */
+	private <T extends Table> CompletableFuture<QueryPage<T>> queryGlobal(
+		Class<T> type,
+		AttributeValue id,
+		int tier,
+		Map<String, AttributeValue> startKey,
+		Integer limit,
+		List<T> results
+	) {
+		var table = entityTables.get(tier);
+		return client
+			.query(builder ->
+				builder
+					.tableName(table)
+					.indexName("secondaryGlobal")
+					.keyConditionExpression("secondaryGlobal = :secondaryGlobal")
+					.expressionAttributeValues(Map.of(":secondaryGlobal", id))
+					.applyMutation(b -> {
+						if (limit != null) {
+							b.limit(limit - results.size());
+						}
+						if (startKey != null) {
+							b.exclusiveStartKey(startKey);
+						}
+					})
+			)
+			.thenCompose(response -> {
+				var rows = response.items().stream().map(item -> new DynamoItem(table, item)).collect(Collectors.toList());
+				return layerAbove(tier, rows)
+					.thenCompose(layered -> {
+						layered.stream().map(row -> row.convertTo(mapper, type)).filter(Objects::nonNull).forEach(results::add);
+						var next = response.lastEvaluatedKey();
+						if (response.hasLastEvaluatedKey() && !next.isEmpty()) {
+							if (limit != null && results.size() >= limit) {
+								return CompletableFuture.completedFuture(new QueryPage<>(results, new IndexCursor(table, next).encode(mapper)));
+							}
+							return queryGlobal(type, id, tier, next, limit, results);
+						}
+						if (tier == 0) {
+							return CompletableFuture.completedFuture(new QueryPage<>(results, null));
+						}
+						if (limit != null && results.size() >= limit) {
+							//next page starts at the top of the table below
+							return CompletableFuture.completedFuture(new QueryPage<>(results, new IndexCursor(entityTables.get(tier - 1), Map.of()).encode(mapper)));
+						}
+						return queryGlobal(type, id, tier - 1, null, limit, results);
+					});
+			});
+	}
+
+	private CompletableFuture<List<DynamoItem>> layerAbove(int tier, List<DynamoItem> rows) {
+		if (rows.isEmpty() || tier == entityTables.size() - 1) {
+			return CompletableFuture.completedFuture(rows);
+		}
+		var above = entityTables.subList(tier + 1, entityTables.size());
+		var entries = rows
+			.stream()
+			.map(row -> Map.of("organisationId", row.getItem().get("organisationId"), "id", row.getItem().get("id")))
+			.collect(Collectors.toList());
+		var found = new HashMap<String, List<DynamoItem>>();
+		var futures = Lists
+			.partition(entries, 100 / above.size())
+			.stream()
+			.map(chunk -> {
+				Map<String, KeysAndAttributes> items = new HashMap<>();
+				for (var table : above) {
+					items.put(table, keysAndAttributes(chunk, new TreeSet<>(), ReadConsistency.STRONG));
+				}
+				return getItems(
+					0,
+					items,
+					(table, list) -> {
+						synchronized (found) {
+							list.forEach(item -> found.computeIfAbsent(item.get("organisationId").s() + ":" + item.get("id").s(), __ -> new ArrayList<>()).add(new DynamoItem(table, item)));
+						}
+					}
+				);
+			})
+			.collect(Collectors.toList());
+		return CompletableFutureUtil
+			.sequence(futures)
+			.thenApply(__ -> {
+				var toReturn = new ArrayList<DynamoItem>();
+				for (var row : rows) {
+					var layered = row;
+					boolean replaced = false;
+					for (var higher : found.getOrDefault(row.getItem().get("organisationId").s() + ":" + row.getItem().get("id").s(), List.of())) {
+						if (higher.isDeleted() || higher.getItem().get("item") != null) {
+							replaced = true;
+						}
+						layered = Flattener.merge(entityTables, layered, higher);
+					}
+					if (!replaced) {
+						toReturn.add(layered);
+					}
+				}
+				return toReturn;
+			});
+	}
+
 	private CompletableFuture<List<DynamoItem>> queryGlobal(String table, AttributeValue id) {
 		Map<String, AttributeValue> keyConditions = new HashMap<>();
 		keyConditions.put(":secondaryGlobal", id);
@@ -736,6 +1462,15 @@ public class DynamoDb extends DatabaseDriver {
 		String organisationId,
 		String value,
 		TableDataLoader<DatabaseKey<Table>> item
+	) {
+		return querySecondaryKeys(type, organisationId, value, item).thenCompose(keys -> item.<T>loadMany(keys));
+	}
+
+	private <T extends Table> CompletableFuture<List<DatabaseKey<Table>>> querySecondaryKeys(
+		Class<T> type,
+		String organisationId,
+		String value,
+		TableDataLoader<DatabaseKey<Table>> item
 	) {
 		if (getExtractor(type).isPresent()) {
 			throw new UnsupportedOperationException("hashed objects do not support secondary queries");
@@ -744,6 +1479,10 @@ public class DynamoDb extends DatabaseDriver {
 		var organisationIdAttribute = AttributeValue.builder().s(organisationId).build();
 		var id = AttributeValue.builder().s(table(type) + ":" + value).build();
 
+		if (secondaryFromIndex) {
+			return querySecondaryItems(type, organisationId, organisationIdAttribute, id, item);
+		}
+
 		CompletableFuture<Set<String>> future = CompletableFuture.completedFuture(new HashSet<>());
 		for (var table : entityTables) {
 			future =
@@ -756,25 +1495,211 @@ public class DynamoDb extends DatabaseDriver {
 				);
 		}
 
-		return future.thenCompose(results -> {
-			List<DatabaseKey<Table>> keys = results
-				.stream()
-				.map(i -> (DatabaseKey<Table>) createDatabaseKey(organisationId, type, i))
-				.collect(Collectors.toList());
-			return item.loadMany(keys);
-		});
+		return future.thenApply(results ->
+			results.stream().map(i -> (DatabaseKey<Table>) createDatabaseKey(organisationId, type, i)).collect(Collectors.toList())
+		);
 	}
 
-	private CompletableFuture<List<String>> querySecondary(String table, AttributeValue organisationId, AttributeValue id) {
-		Map<String, AttributeValue> keyConditions = new HashMap<>();
-		keyConditions.put(":organisationId", organisationId);
-		keyConditions.put(":secondaryOrganisation", id);
-
-		var toReturn = new ArrayList<String>();
-		return client
-			.queryPaginator(r ->
-				r
-					.tableName(table)
+	@Override
+	public <T extends Table> CompletableFuture<List<DatabaseKey<Table>>> querySecondary(
+		String organisationId,
+		IndexQuery<T> query,
+		TableDataLoader<DatabaseKey<Table>> item
+	) {
+		if (query.isExact() && query.getIndex() == null) {
+			return querySecondaryKeys(query.getType(), organisationId, query.getValue(), item);
+		}
+		if (query.getCursor() != null) {
+			throw new UnsupportedOperationException("secondary lookups do not support cursors");
+		}
+		var type = query.getType();
+		if (getExtractor(type).isPresent()) {
+			throw new UnsupportedOperationException("hashed objects do not support secondary queries");
+		}
+
+		var index = query.getIndex() == null ? DEFAULT_SECONDARY_INDEX : secondaryIndex(query.getIndex());
+		var attribute = index.getAttribute();
+
+		//values are stored as table:value so open ranges are bounded by the next character after the separator
+		var prefix = table(type) + ":";
+		Map<String, AttributeValue> values = new HashMap<>();
+		values.put(":organisationId", AttributeValue.builder().s(organisationId).build());
+		String condition;
+		if (query.getValue() != null) {
+			values.put(":value", AttributeValue.builder().s(prefix + query.getValue()).build());
+			condition = "organisationId = :organisationId AND #index = :value";
+		} else if (query.getStartsWith() != null) {
+			values.put(":value", AttributeValue.builder().s(prefix + query.getStartsWith()).build());
+			condition = "organisationId = :organisationId AND begins_with(#index, :value)";
+		} else {
+			var from = query.getFrom() == null ? prefix : prefix + query.getFrom();
+			var to = query.getTo() == null ? table(type) + ";" : prefix + query.getTo();
+			values.put(":from", AttributeValue.builder().s(from).build());
+			values.put(":to", AttributeValue.builder().s(to).build());
+			condition = "organisationId = :organisationId AND #index BETWEEN :from AND :to";
+		}
+
+		var futures = new ArrayList<CompletableFuture<List<DynamoItem>>>();
+		for (int tier = 0; tier < entityTables.size(); tier++) {
+			var request = QueryRequest
+				.builder()
+				.tableName(entityTables.get(tier))
+				.indexName(index.getIndexName())
+				.keyConditionExpression(condition)
+				.expressionAttributeNames(Map.of("#index", attribute))
+				.expressionAttributeValues(values)
+				.scanIndexForward(!query.isDescending())
+				.applyMutation(b -> {
+					if (query.getIndex() == null) {
+						//a local index fetches anything it does not project
+						b.select(Select.ALL_ATTRIBUTES);
+					} else {
+						//a named index may be a keys only global one, the entities are loaded from the keys
+						b.projectionExpression("organisationId, id, #index");
+					}
+				})
+				.build();
+			futures.add(querySecondary(tier, request, null, query.getLimit(), new ArrayList<>()));
+		}
+
+		Comparator<DynamoItem> order = (a, b) -> {
+			int compare = QueryMerger.compare(a.getField(attribute), b.getField(attribute));
+			return compare != 0 ? compare : QueryMerger.compare(a.getId(), b.getId());
+		};
+		var direction = query.isDescending() ? order.reversed() : order;
+		return CompletableFutureUtil
+			.sequence(futures)
+			.thenApply(results -> {
+				var rows = results.stream().flatMap(List::stream).sorted(direction);
+				if (query.getLimit() != null) {
+					rows = rows.limit(query.getLimit());
+				}
+				List<DatabaseKey<Table>> keys = new ArrayList<>();
+				rows.forEach(row -> {
+					var key = (DatabaseKey<Table>) createDatabaseKey(organisationId, type, row.getId().substring(row.getId().indexOf(':') + 1));
+					var entity = row.convertTo(mapper, type);
+					if (entity != null) {
+						item.prime(key, entity);
+					}
+					keys.add(key);
+				});
+				return keys;
+			});
+	}
+
+	/**
+	 * Reads one table of the index until it has limit rows that are not replaced by a table above
+	 */
+	private CompletableFuture<List<DynamoItem>> querySecondary(
+		int tier,
+		QueryRequest request,
+		Map<String, AttributeValue> startKey,
+		Integer limit,
+		List<DynamoItem> results
+	) {
+		var table = entityTables.get(tier);
+		var page = request
+			.toBuilder()
+			.applyMutation(b -> {
+				if (limit != null) {
+					b.limit(limit - results.size());
+				}
+				if (startKey != null) {
+					b.exclusiveStartKey(startKey);
+				}
+			})
+			.build();
+		return client
+			.query(page)
+			.thenCompose(response -> {
+				var rows = response.items().stream().map(item -> new DynamoItem(table, item)).collect(Collectors.toList());
+				return layerAbove(tier, rows)
+					.thenCompose(layered -> {
+						results.addAll(layered);
+						if (response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty() && (limit == null || results.size() < limit)) {
+							return querySecondary(tier, request, response.lastEvaluatedKey(), limit, results);
+						}
+						return CompletableFuture.completedFuture(results);
+					});
+			});
+	}
+
+	/**
+	 * Builds entities straight from the index rows when the row for an id comes from the top table, as that row already
+	 * decides the entity, and primes them into the items loader. Rows only found in lower tables may be overridden above
+	 * so those are left for the loader to read.
+	 */
+	private <T extends Table> CompletableFuture<List<DatabaseKey<Table>>> querySecondaryItems(
+		Class<T> type,
+		String organisationId,
+		AttributeValue organisationIdAttribute,
+		AttributeValue id,
+		TableDataLoader<DatabaseKey<Table>> item
+	) {
+		CompletableFuture<List<List<DynamoItem>>> future = CompletableFuture.completedFuture(new ArrayList<>());
+		for (var table : entityTables) {
+			future =
+				future.thenCombine(
+					querySecondaryItems(table, organisationIdAttribute, id),
+					(a, b) -> {
+						a.add(b);
+						return a;
+					}
+				);
+		}
+
+		return future.thenApply(results -> {
+			//tables are in layering order so the highest row for each id is left
+			var rows = new TreeMap<String, DynamoItem>();
+			results.forEach(list -> list.forEach(row -> rows.put(row.getId(), row)));
+
+			List<DatabaseKey<Table>> keys = new ArrayList<>();
+			for (var row : rows.values()) {
+				var key = (DatabaseKey<Table>) createDatabaseKey(organisationId, type, row.getId().substring(row.getId().indexOf(':') + 1));
+				if (row.getTable().equals(entityTable) && row.getItem().get("item") != null) {
+					var entity = row.convertTo(mapper, type);
+					if (entity != null) {
+						item.prime(key, entity);
+					}
+				}
+				keys.add(key);
+			}
+			return keys;
+		});
+	}
+
+	private CompletableFuture<List<DynamoItem>> querySecondaryItems(String table, AttributeValue organisationId, AttributeValue id) {
+		Map<String, AttributeValue> keyConditions = new HashMap<>();
+		keyConditions.put(":organisationId", organisationId);
+		keyConditions.put(":secondaryOrganisation", id);
+
+		var toReturn = new ArrayList<DynamoItem>();
+		return client
+			.queryPaginator(r ->
+				r
+					.tableName(table)
+					.indexName("secondaryOrganisation")
+					.keyConditionExpression("organisationId = :organisationId AND secondaryOrganisation = :secondaryOrganisation")
+					.expressionAttributeValues(keyConditions)
+			)
+			.subscribe(response -> {
+				response.items().forEach(item -> toReturn.add(new DynamoItem(table, item)));
+			})
+			.thenApply(__ -> {
+				return toReturn;
+			});
+	}
+
+	private CompletableFuture<List<String>> querySecondary(String table, AttributeValue organisationId, AttributeValue id) {
+		Map<String, AttributeValue> keyConditions = new HashMap<>();
+		keyConditions.put(":organisationId", organisationId);
+		keyConditions.put(":secondaryOrganisation", id);
+
+		var toReturn = new ArrayList<String>();
+		return client
+			.queryPaginator(r ->
+				r
+					.tableName(table)
 					.indexName("secondaryOrganisation")
 					.keyConditionExpression("organisationId = :organisationId AND secondaryOrganisation = :secondaryOrganisation")
 					.expressionAttributeValues(keyConditions)
@@ -795,46 +1720,102 @@ public class DynamoDb extends DatabaseDriver {
 			});
 	}
 
-	private CompletableFuture<List<DynamoItem>> query(String organisationId, String table, Query<?> query) {
+	private QueryRequest queryRequest(
+		String organisationId,
+		String table,
+		Query<?> query,
+		IdRange range,
+		FilterExpression filter,
+		SortedSet<String> fields,
+		Integer pageLimit,
+		ReadConsistency consistency,
+		Map<String, AttributeValue> startKey
+	) {
 		var keys = mapWithKeys(organisationId, query.getType(), query.getStartsWith());
 		var organisationIdAttribute = keys.get("organisationId");
 		var id = keys.get("id");
 		Map<String, AttributeValue> keyConditions = new HashMap<>();
 		keyConditions.put(":organisationId", organisationIdAttribute);
-		if (id != null && !id.s().isEmpty()) {
+		if (range != null) {
+			keyConditions.put(":lower", AttributeValue.builder().s(range.getLower()).build());
+			keyConditions.put(":upper", AttributeValue.builder().s(range.getUpper()).build());
+		} else if (id != null && !id.s().isEmpty()) {
 			keyConditions.put(":table", id);
 		}
+		if (filter != null) {
+			keyConditions.putAll(filter.getValues());
+		}
 
-		var s = new DynamoQuerySubscriber(table, query.getLimit());
-		client
-			.queryPaginator(r -> {
+		return QueryRequest
+			.builder()
+			.applyMutation(r -> {
 				r
 					.tableName(table)
-					.consistentRead(true)
+					.consistentRead(consistency != ReadConsistency.EVENTUAL)
 					.expressionAttributeValues(keyConditions)
+					.scanIndexForward(!query.isDescending())
 					.applyMutation(b -> {
-						if (id == null || id.s().isEmpty()) {
+						if (range != null) {
+							b.keyConditionExpression("organisationId = :organisationId AND id BETWEEN :lower AND :upper");
+						} else if (id == null || id.s().isEmpty()) {
 							b.keyConditionExpression("organisationId = :organisationId");
 						} else {
 							b.keyConditionExpression("organisationId = :organisationId AND begins_with(id, :table)");
 						}
 
-						if (query.getLimit() != null) {
-							b.limit(query.getLimit());
+						if (pageLimit != null) {
+							b.limit(pageLimit);
+						}
+
+						Map<String, String> names = new HashMap<>();
+						if (fields != null) {
+							b.projectionExpression(projection(fields, names));
+						}
+						if (filter != null) {
+							b.filterExpression(filter.getExpression());
+							names.putAll(filter.getNames());
+						}
+						if (!names.isEmpty()) {
+							b.expressionAttributeNames(names);
 						}
 
-						if (query.getAfter() != null) {
+						if (startKey != null) {
+							b.exclusiveStartKey(startKey);
+						} else if (query.getAfter() != null && range == null) {
 							b.exclusiveStartKey(mapWithKeys(organisationId, query.getType(), query.getAfter()));
 						}
 					});
 			})
-			.subscribe(s);
+			.build();
+	}
 
-		return s.getFuture();
+	private void query(QueryRequest request, Subscriber<QueryResponse> subscriber) {
+		if (queryHedger.isEnabled()) {
+			QueryPages.subscribe(client, request, queryHedger, subscriber);
+		} else {
+			client.queryPaginator(request).subscribe(subscriber);
+		}
+	}
+
+	private <T> CompletableFuture<T> write(Supplier<CompletableFuture<T>> write) {
+		return singleFlight == null ? write.get() : singleFlight.write(write);
+	}
+
+	private SecondaryIndexMapping secondaryIndex(String name) {
+		var mapping = secondaryIndexes.get(name);
+		return mapping == null ? SecondaryIndexMapping.defaultMapping(name) : mapping;
+	}
+
+	public HedgingMetrics getHedgingMetrics() {
+		return hedgingMetrics;
 	}
 
 	@Override
 	public CompletableFuture<Void> restoreBackup(List<BackupItem> entities) {
+		return write(() -> restoreItems(entities));
+	}
+
+	private CompletableFuture<Void> restoreItems(List<BackupItem> entities) {
 		List<CompletableFuture<BatchWriteItemResponse>> completableFutures = Lists
 			.partition(
 				entities
@@ -890,6 +1871,9 @@ public class DynamoDb extends DatabaseDriver {
 		});
 	}
 
+	/**
+	 * Edge rows live in the entity table so they are backed up as whole rows with the entities and restored as edges
+	 */
 	private CompletableFuture<List<BackupItem>> takeBackup(String table, AttributeValue organisationId) {
 		if (hash && hashKeyExpander == null) {
 			throw new UnsupportedOperationException("To perform backups on hashed databases must specify hashLocators");
@@ -910,6 +1894,10 @@ public class DynamoDb extends DatabaseDriver {
 				response
 					.items()
 					.forEach(item -> {
+						//an expiring tombstone only records a delete for syncs, the entity is gone as far as a restore is concerned
+						if (item.get("ttl") != null && item.get("item") == null) {
+							return;
+						}
 						if (this.hash) {
 							var id = item.get("id").s();
 							var type = id.substring(0, id.indexOf(':'));
@@ -944,212 +1932,232 @@ public class DynamoDb extends DatabaseDriver {
 		return future.thenApply(__ -> toReturn);
 	}
 
-	private CompletableFuture<?> removeLinks(
-		String organisationId,
-		Class<? extends Table> fromTable,
-		Set<String> fromIds,
-		String targetTable,
-		String targetId
-	) {
-		var targetIdAttribute = AttributeValue.builder().ss(targetId).build();
-		var futures = fromIds
+	/**
+	 * Updates the far side of links that have changed on an entity, unless a stream consumer has been set up to do it.
+	 */
+	private CompletableFuture<Void> updateReverseLinks(String organisationId, Collection<LinkChange> changes) {
+		if (asyncLinks) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return updateLinks(organisationId, changes);
+	}
+
+	private String addRevision() {
+		if (asyncLinks) {
+			//lets the stream consumer tell link changes apart from puts and its own updates
+			return " ADD revision :revisionIncrement, linkRevision :revisionIncrement";
+		}
+		return " ADD revision :revisionIncrement";
+	}
+
+	private CompletableFuture<Void> updateLinks(String organisationId, Collection<LinkChange> changes) {
+		List<Supplier<CompletableFuture<Void>>> updates = changes
 			.stream()
-			.map(fromId -> {
-				Map<String, AttributeValue> targetKey = mapWithKeys(organisationId, fromTable, fromId);
+			.filter(change -> !change.isEmpty())
+			.<Supplier<CompletableFuture<Void>>>map(change -> () -> updateLinks(organisationId, change))
+			.collect(Collectors.toList());
+		return CompletableFutureUtil.sequence(updates, MAX_CONCURRENT_UPDATES).thenApply(__ -> null);
+	}
 
-				Map<String, AttributeValue> v = new HashMap<>();
-				v.put(":val", targetIdAttribute);
-				v.put(":revisionIncrement", REVISION_INCREMENT);
+	private CompletableFuture<Void> updateLinks(String organisationId, LinkChange change) {
+		if (change.isOverlapping()) {
+			return updateLinks(organisationId, change.additionsOnly(), 0).thenCompose(__ -> updateLinks(organisationId, change.removalsOnly(), 0));
+		}
+		return updateLinks(organisationId, change, 0);
+	}
 
-				Map<String, String> k = new HashMap<>();
-				k.put("#table", targetTable);
+	private CompletableFuture<Void> updateLinks(String organisationId, LinkChange change, int count) {
+		if (count > maxRetry) {
+			throw new RuntimeException("Failed to update links on " + change.getTable() + ":" + change.getId() + " after " + maxRetry + " attempts");
+		}
+		var key = mapWithKeys(organisationId, change.getTable(), change.getId());
 
-				return client.updateItem(request ->
-					request
-						.tableName(entityTable)
-						.key(targetKey)
-						.updateExpression("DELETE links.#table :val ADD revision :revisionIncrement")
-						.expressionAttributeNames(k)
-						.expressionAttributeValues(v)
-				);
-			})
-			.toArray(CompletableFuture[]::new);
+		Map<String, String> k = new HashMap<>();
+		Map<String, AttributeValue> v = new HashMap<>();
+		v.put(":revisionIncrement", REVISION_INCREMENT);
+
+		var add = new StringBuilder("ADD revision :revisionIncrement");
+		var delete = new StringBuilder();
+		int i = 0;
+		for (var entry : change.getAdditions().entrySet()) {
+			k.put("#table" + i, entry.getKey());
+			v.put(":val" + i, AttributeValue.builder().ss(entry.getValue()).build());
+			add.append(", links.#table" + i + " :val" + i);
+			i++;
+		}
+		for (var entry : change.getRemovals().entrySet()) {
+			k.put("#table" + i, entry.getKey());
+			v.put(":val" + i, AttributeValue.builder().ss(entry.getValue()).build());
+			delete.append(delete.length() == 0 ? " DELETE " : ", ").append("links.#table" + i + " :val" + i);
+			i++;
+		}
 
-		return CompletableFuture.allOf(futures);
+		var changed = stampChanged(v, organisationId, change.getTable());
+		var set = changed == null ? "" : "SET " + changed + " ";
+
+		return client
+			.updateItem(request ->
+				request
+					.tableName(entityTable)
+					.key(key)
+					.conditionExpression("attribute_exists(links)")
+					.updateExpression(set + add + delete)
+					.expressionAttributeNames(k)
+					.expressionAttributeValues(v)
+			)
+			.handle((r, e) -> {
+				if (e == null) {
+					return CompletableFuture.<Void>completedFuture(null);
+				}
+				if (!(e.getCause() instanceof ConditionalCheckFailedException)) {
+					Throwables.throwIfUnchecked(e);
+					throw new RuntimeException(e);
+				}
+				if (change.getAdditions().isEmpty()) {
+					//row has no links so there is nothing to remove
+					return CompletableFuture.<Void>completedFuture(null);
+				}
+				return createLinks(organisationId, change, count);
+			})
+			.thenCompose(a -> a);
 	}
 
-	private CompletableFuture<?> addLinks(String organisationId, Class<? extends Table> fromTable, Set<String> fromIds, String targetTable, String targetId) {
-		var targetIdAttribute = AttributeValue.builder().ss(targetId).build();
+	/**
+	 * only used when the row is missing from this table or was written before links existed, removals have nothing to
+	 * act on so only the additions are kept
+	 */
+	private CompletableFuture<Void> createLinks(String organisationId, LinkChange change, int count) {
+		var key = mapWithKeys(organisationId, change.getTable(), change.getId());
 
-		var futures = fromIds
-			.stream()
-			.map(fromId -> {
-				Map<String, AttributeValue> targetKey = mapWithKeys(organisationId, fromTable, fromId);
+		Map<String, AttributeValue> links = new HashMap<>();
+		change.getAdditions().forEach((table, ids) -> links.put(table, AttributeValue.builder().ss(ids).build()));
 
-				Map<String, AttributeValue> v = new HashMap<>();
-				v.put(":val", targetIdAttribute);
-				v.put(":revisionIncrement", REVISION_INCREMENT);
-				Map<String, String> k = new HashMap<>();
-				k.put("#table", targetTable);
+		Map<String, AttributeValue> v = new HashMap<>();
+		v.put(":val", AttributeValue.builder().m(links).build());
+		v.put(":revisionIncrement", REVISION_INCREMENT);
+		var changed = stampChanged(v, organisationId, change.getTable());
 
-				return client
-					.updateItem(request ->
-						request
-							.tableName(entityTable)
-							.key(targetKey)
-							.conditionExpression("attribute_exists(links)")
-							.updateExpression("ADD links.#table :val, revision :revisionIncrement")
-							.expressionAttributeNames(k)
-							.expressionAttributeValues(v)
-					)
-					.handle((r, e) -> {
-						if (e != null) {
-							if (e.getCause() instanceof ConditionalCheckFailedException) {
-								Map<String, AttributeValue> m = new HashMap<>();
-								m.put(targetTable, targetIdAttribute);
-								v.put(":val", AttributeValue.builder().m(m).build());
-								v.put(":revisionIncrement", REVISION_INCREMENT);
-
-								return client.updateItem(request ->
-									request
-										.tableName(entityTable)
-										.key(targetKey)
-										.conditionExpression("attribute_not_exists(links)")
-										.updateExpression("SET links = :val ADD revision :revisionIncrement")
-										.expressionAttributeValues(v)
-								);
-							} else {
-								throw new RuntimeException(e);
-							}
-						}
-						return CompletableFuture.completedFuture(r);
-					})
-					.thenCompose(a -> a)
-					.handle((r, e) -> { //nasty if attribute now exists use first approach again...
-						if (e != null) {
-							if (e.getCause() instanceof ConditionalCheckFailedException) {
-								return client.updateItem(request ->
-									request
-										.tableName(entityTable)
-										.key(targetKey)
-										.conditionExpression("attribute_exists(links)")
-										.updateExpression("ADD links.#table :val, revision :revisionIncrement")
-										.expressionAttributeNames(k)
-										.expressionAttributeValues(v)
-								);
-							} else {
-								throw new RuntimeException(e);
-							}
-						}
-						return CompletableFuture.completedFuture(r);
-					})
-					.thenCompose(a -> a);
+		return client
+			.updateItem(request ->
+				request
+					.tableName(entityTable)
+					.key(key)
+					.conditionExpression("attribute_not_exists(links)")
+					.updateExpression("SET links = :val" + (changed == null ? "" : ", " + changed) + " ADD revision :revisionIncrement")
+					.expressionAttributeValues(v)
+			)
+			.handle((r, e) -> {
+				if (e == null) {
+					return CompletableFuture.<Void>completedFuture(null);
+				}
+				if (e.getCause() instanceof ConditionalCheckFailedException) {
+					//links was created since the first attempt
+					return updateLinks(organisationId, change, count + 1);
+				}
+				Throwables.throwIfUnchecked(e);
+				throw new RuntimeException(e);
 			})
-			.toArray(CompletableFuture[]::new);
+			.thenCompose(a -> a);
+	}
 
-		return CompletableFuture.allOf(futures);
+	private <T extends Table> CompletableFuture<T> updateEntityLinks(String organisationId, T entity, Map<String, Collection<String>> links) {
+		String sourceTable = getSourceTable(entity);
+		String sourceOrganisationId = getSourceOrganisationId(entity);
+		//if it was read from this table and organisation the row will already have links, otherwise it is new to this table
+		boolean existing = sourceTable.equals(entityTable) && sourceOrganisationId.equals(organisationId);
+		//revision checks don't really work when reading from one env and writing to another, or read from global write to organisation.
+		//revision would only practically be empty if reading object before revision concept is present
+		boolean revisionCheck = existing && entity.getRevision() != 0;
+		return updateEntityLinks(organisationId, entity, links, existing, revisionCheck, false);
 	}
 
 	private <T extends Table> CompletableFuture<T> updateEntityLinks(
 		String organisationId,
 		T entity,
-		Class<? extends Table> targetType,
-		Collection<String> targetId
+		Map<String, Collection<String>> links,
+		boolean existing,
+		boolean revisionCheck,
+		boolean retried
 	) {
 		Map<String, AttributeValue> key = mapWithKeys(organisationId, entity);
 
-		String targetTable = table(targetType);
-
-		Map<String, String> k = new HashMap<>();
-		k.put("#table", targetTable);
-
 		Map<String, AttributeValue> values = new HashMap<>();
-		if (targetId.isEmpty()) {
-			values.put(":val", AttributeValue.builder().nul(true).build());
-		} else {
-			values.put(":val", AttributeValue.builder().ss(targetId).build());
-		}
 		values.put(":revisionIncrement", REVISION_INCREMENT);
+		track(entity.getClass());
+		var changed = stampChanged(values, organisationId, table(entity.getClass()));
+		var stamp = changed == null ? "" : ", " + changed;
 
 		String extraConditions;
-
-		String sourceTable = getSourceTable(entity);
-		String sourceOrganisationId = getSourceOrganisationId(entity);
-		//revision checks don't really work when reading from one env and writing to another, or read from global write to organisation.
-		//revision would only practically be empty if reading object before revision concept is present
-		if (sourceTable.equals(entityTable) && sourceOrganisationId.equals(organisationId) && entity.getRevision() != 0) {
+		if (revisionCheck) {
 			values.put(":revision", AttributeValue.builder().n(Long.toString(entity.getRevision())).build());
 			extraConditions = " AND revision = :revision";
 		} else {
 			extraConditions = "";
 		}
 
-		var destination = client
-			.updateItem(request ->
-				request
-					.tableName(entityTable)
-					.key(key)
-					.conditionExpression("attribute_exists(links)" + extraConditions)
-					.updateExpression("SET links.#table = :val ADD revision :revisionIncrement")
-					.expressionAttributeNames(k)
-					.expressionAttributeValues(values)
-					.returnValues(ReturnValue.UPDATED_NEW)
-			)
-			.handle((r, e) -> {
-				if (e != null) {
-					if (e.getCause() instanceof ConditionalCheckFailedException) {
-						Map<String, AttributeValue> m = new HashMap<>();
-						m.put(targetTable, values.get(":val"));
-						values.put(":val", AttributeValue.builder().m(m).build());
-
-						return client.updateItem(request ->
-							request
-								.tableName(entityTable)
-								.key(key)
-								.conditionExpression("attribute_not_exists(links)" + extraConditions)
-								.updateExpression("SET links = :val ADD revision :revisionIncrement")
-								.expressionAttributeValues(values)
-								.returnValues(ReturnValue.UPDATED_NEW)
-						);
-					} else {
-						throw new RuntimeException(e);
+		return client
+			.updateItem(request -> {
+				request.tableName(entityTable).key(key).returnValues(ReturnValue.UPDATED_NEW);
+				if (existing) {
+					Map<String, String> names = new HashMap<>();
+					var set = new StringBuilder();
+					int i = 0;
+					for (var link : links.entrySet()) {
+						names.put("#table" + i, link.getKey());
+						values.put(":val" + i, toLinkAttribute(link.getValue()));
+						set.append(i == 0 ? "SET " : ", ").append("links.#table" + i + " = :val" + i);
+						i++;
 					}
+					request
+						.conditionExpression("attribute_exists(links)" + extraConditions)
+						.updateExpression(set + stamp + addRevision())
+						.expressionAttributeNames(names);
+				} else {
+					Map<String, AttributeValue> linkMap = new HashMap<>();
+					links.forEach((table, ids) -> linkMap.put(table, toLinkAttribute(ids)));
+					values.put(":val", AttributeValue.builder().m(linkMap).build());
+					request
+						.conditionExpression("attribute_not_exists(links)" + extraConditions)
+						.updateExpression("SET links = :val" + stamp + addRevision());
 				}
-				return CompletableFuture.completedFuture(r);
+				request.expressionAttributeValues(values);
 			})
-			.thenCompose(a -> a)
-			.handle((r, e) -> {
-				if (e != null) {
-					if (e.getCause() instanceof ConditionalCheckFailedException) {
-						return client.updateItem(request ->
-							request
-								.tableName(entityTable)
-								.key(key)
-								.conditionExpression("attribute_exists(links)" + extraConditions)
-								.updateExpression("SET links.#table = :val ADD revision :revisionIncrement")
-								.expressionAttributeNames(k)
-								.expressionAttributeValues(values)
-								.returnValues(ReturnValue.UPDATED_NEW)
-						);
-					} else {
-						throw new RuntimeException(e);
-					}
+			.handle((response, failure) -> {
+				if (failure == null) {
+					entity.setRevision(Long.parseLong(response.attributes().get("revision").n()));
+					return CompletableFuture.completedFuture(entity);
 				}
-				return CompletableFuture.completedFuture(r);
-			})
-			.thenCompose(a -> a);
-		return destination
-			.thenApply(response -> {
-				entity.setRevision(Long.parseLong(response.attributes().get("revision").n()));
-				return entity;
-			})
-			.exceptionally(failure -> {
 				if (failure.getCause() instanceof ConditionalCheckFailedException) {
-					throw new RevisionMismatchException(failure.getCause());
+					if (retried) {
+						throw new RevisionMismatchException(failure.getCause());
+					}
+					//links may not be in the shape we expected, eg restored rows without links, so try the other form once
+					if (!revisionCheck) {
+						return updateEntityLinks(organisationId, entity, links, !existing, false, true);
+					}
+					//a newer revision is a real conflict, only the links check failing is worth the other form
+					return client
+						.getItem(request -> request.tableName(entityTable).key(key).consistentRead(true).projectionExpression("revision"))
+						.thenCompose(current -> {
+							var revision = current.item().get("revision");
+							if (revision == null || Long.parseLong(revision.n()) != entity.getRevision()) {
+								throw new RevisionMismatchException(failure.getCause());
+							}
+							return updateEntityLinks(organisationId, entity, links, !existing, true, true);
+						});
 				}
 				Throwables.throwIfUnchecked(failure);
 				throw new RuntimeException(failure);
-			});
+			})
+			.thenCompose(a -> a);
+	}
+
+	private static AttributeValue toLinkAttribute(Collection<String> ids) {
+		if (ids.isEmpty()) {
+			return AttributeValue.builder().nul(true).build();
+		} else {
+			return AttributeValue.builder().ss(ids).build();
+		}
 	}
 
 	@Override
@@ -1157,35 +2165,167 @@ public class DynamoDb extends DatabaseDriver {
 		if (getExtractor(entity.getClass()).isPresent() || getExtractor(class1).isPresent()) {
 			throw new UnsupportedOperationException("hashed objects can not be linked");
 		}
+		var value = new LinkValue<T>(organisationId, entity, class1, groupIds, new CompletableFuture<>());
+		return bulkLink(List.of(value)).thenCompose(__ -> value.getFuture());
+	}
 
-		var source = table(entity.getClass());
+	@Override
+	public CompletableFuture<Void> bulkLink(List<LinkValue> values) {
+		CompletableFuture<Void> linked;
+		try {
+			linked = write(() -> linkValues(values));
+		} catch (RuntimeException e) {
+			linked = CompletableFuture.failedFuture(e);
+		}
+		//a failure outside of any value's own handling would otherwise leave its caller waiting forever
+		return linked.whenComplete((__, failure) -> {
+			if (failure != null) {
+				values.forEach(value -> value.fail(failure));
+			}
+		});
+	}
 
-		var target = table(class1);
-		var existing = getLinks(entity).get(target);
+	private CompletableFuture<Void> linkValues(List<LinkValue> values) {
+		//group by organisation then entity so each entity row gets a single update for all its link types
+		Map<String, Map<String, List<LinkValue>>> byOrganisation = new LinkedHashMap<>();
+		for (var value : values) {
+			var entity = value.getEntity();
+			if (getExtractor(entity.getClass()).isPresent() || getExtractor(value.getType()).isPresent()) {
+				value.fail(new UnsupportedOperationException("hashed objects can not be linked"));
+				continue;
+			}
+			byOrganisation
+				.computeIfAbsent(value.getOrganisationId(), __ -> new LinkedHashMap<>())
+				.computeIfAbsent(table(entity.getClass()) + ":" + entity.getId(), __ -> new ArrayList<>())
+				.add(value);
+		}
+		return CompletableFuture.allOf(
+			byOrganisation
+				.entrySet()
+				.stream()
+				.map(entry -> bulkLink(entry.getKey(), new ArrayList<>(entry.getValue().values())))
+				.toArray(CompletableFuture[]::new)
+		);
+	}
 
-		var toAdd = new HashSet<>(groupIds);
-		toAdd.removeAll(existing);
+	private CompletableFuture<Void> bulkLink(String organisationId, List<List<LinkValue>> groups) {
+		var entityUpdates = groups
+			.stream()
+			.<Supplier<CompletableFuture<List<LinkChange>>>>map(group -> () -> linkEntity(organisationId, group))
+			.collect(Collectors.toList());
 
-		var toRemove = new HashSet<>(existing);
-		toRemove.removeAll(groupIds);
+		//wait until the entities have been updated in-case they fail then update the other targets.
+		return CompletableFutureUtil
+			.sequence(entityUpdates, MAX_CONCURRENT_UPDATES)
+			.thenCompose(entityChanges -> {
+				if (asyncLinks) {
+					//the stream consumer brings the targets into line
+					return CompletableFuture.completedFuture(null);
+				}
+				//merge changes so a target shared by many entities is only updated once
+				Map<String, LinkChange> merged = new LinkedHashMap<>();
+				Map<String, List<List<LinkValue>>> contributors = new HashMap<>();
+				for (int i = 0; i < groups.size(); i++) {
+					var changes = entityChanges.get(i);
+					if (changes == null) {
+						continue;
+					}
+					for (var change : changes) {
+						var key = change.getTable() + ":" + change.getId();
+						var mergedChange = merged.computeIfAbsent(key, __ -> new LinkChange(change.getTable(), change.getId()));
+						change.getAdditions().forEach((linkTable, ids) -> ids.forEach(id -> mergedChange.add(linkTable, id)));
+						change.getRemovals().forEach((linkTable, ids) -> ids.forEach(id -> mergedChange.remove(linkTable, id)));
+						contributors.computeIfAbsent(key, __ -> new ArrayList<>()).add(groups.get(i));
+					}
+				}
 
-		var entityFuture = updateEntityLinks(organisationId, entity, class1, groupIds);
+				var targetUpdates = merged
+					.entrySet()
+					.stream()
+					.<Supplier<CompletableFuture<Void>>>map(entry ->
+						() ->
+							updateLinks(organisationId, entry.getValue())
+								.exceptionally(failure -> {
+									contributors.get(entry.getKey()).forEach(group -> group.forEach(value -> value.fail(failure)));
+									return null;
+								})
+					)
+					.collect(Collectors.toList());
 
-		return entityFuture.thenCompose(e -> {
-			//wait until the entity has been updated in-case that fails then update the other targets.
+				return CompletableFutureUtil.sequence(targetUpdates, MAX_CONCURRENT_UPDATES);
+			})
+			.thenAccept(__ -> {
+				for (var group : groups) {
+					for (var value : group) {
+						if (!value.getFuture().isDone()) {
+							//edges are never carried on the entity
+							if (!isEdge(value.getEntity().getClass(), value.getType())) {
+								setLinks(value.getEntity(), table(value.getType()), value.getTargetIds());
+							}
+							value.resolve();
+						}
+					}
+				}
+			});
+	}
 
-			//remove links that have been removed
-			CompletableFuture<?> removeFuture = removeLinks(organisationId, class1, toRemove, source, entity.getId());
-			//add the new links
-			CompletableFuture<?> addFuture = addLinks(organisationId, class1, toAdd, source, entity.getId());
+	/**
+	 * Updates the links on a single entity row and its edge rows, failing its values if that does not work.
+	 *
+	 * @return the changes needed on the far side of each link, null if the entity could not be updated
+	 */
+	private CompletableFuture<List<LinkChange>> linkEntity(String organisationId, List<LinkValue> group) {
+		Table entity = group.get(0).getEntity();
+		var source = table(entity.getClass());
 
-			return CompletableFuture
-				.allOf(removeFuture, addFuture)
-				.thenApply(__ -> {
-					setLinks(entity, target, groupIds);
-					return e;
-				});
+		//later links of the same type replace earlier ones
+		Map<String, Collection<String>> links = new LinkedHashMap<>();
+		Map<String, Collection<String>> edges = new LinkedHashMap<>();
+		for (var value : group) {
+			track(value.getType());
+			if (isEdge(entity.getClass(), value.getType())) {
+				edges.put(table(value.getType()), value.getTargetIds());
+			} else {
+				links.put(table(value.getType()), value.getTargetIds());
+			}
+		}
+
+		var changes = new ArrayList<LinkChange>();
+		links.forEach((target, groupIds) -> {
+			var existing = getLinks(entity).get(target);
+			for (var id : existing) {
+				if (!groupIds.contains(id)) {
+					var change = new LinkChange(target, id);
+					change.remove(source, entity.getId());
+					changes.add(change);
+				}
+			}
+			for (var id : new HashSet<>(groupIds)) {
+				if (!existing.contains(id)) {
+					var change = new LinkChange(target, id);
+					change.add(source, entity.getId());
+					changes.add(change);
+				}
+			}
 		});
+
+		CompletableFuture<Table> entityFuture;
+		if (links.isEmpty()) {
+			entityFuture = CompletableFuture.completedFuture(entity);
+		} else {
+			entityFuture = updateEntityLinks(organisationId, entity, links);
+		}
+
+		return entityFuture
+			.thenCompose(updated -> linkEdges(organisationId, entity, edges).thenApply(__ -> updated))
+			.handle((updated, failure) -> {
+				if (failure != null) {
+					group.forEach(value -> value.fail(failure));
+					return null;
+				}
+				group.forEach(value -> value.getEntity().setRevision(updated.getRevision()));
+				return changes;
+			});
 	}
 
 	@Override
@@ -1195,88 +2335,82 @@ public class DynamoDb extends DatabaseDriver {
 		final Class<? extends Table> clazz,
 		final String targetId
 	) {
+		return write(() -> unlinkEntity(organisationId, entity, clazz, targetId));
+	}
+
+	private <T extends Table> CompletableFuture<T> unlinkEntity(String organisationId, T entity, Class<? extends Table> clazz, String targetId) {
 		if (getExtractor(entity.getClass()).isPresent() || getExtractor(clazz).isPresent()) {
 			throw new UnsupportedOperationException("hashed objects can not be linked");
 		}
 
-		final var updateEntityLinksRequest = createRemoveLinkRequest(organisationId, entity, clazz, targetId);
-
-		return client
-			.updateItem(updateEntityLinksRequest)
-			.thenCompose(ignore -> get(List.of(createDatabaseKey(organisationId, clazz, targetId))))
-			.thenCompose(targetEntities -> {
-				if (targetEntities.isEmpty()) {
-					throw new RuntimeException("Could not find link on the target: " + targetId);
-				}
+		var target = table(clazz);
+		track(clazz);
+		if (isEdge(entity.getClass(), clazz)) {
+			var source = table(entity.getClass());
+			var writes = List.of(
+				removeEdge(organisationId, source, entity.getId(), target, targetId),
+				removeEdge(organisationId, target, targetId, source, entity.getId())
+			);
+			return writeEdges(writes).thenApply(__ -> entity);
+		}
 
-				final var updateTargetLinksRequest = createRemoveLinkRequest(organisationId, targetEntities.get(0), entity.getClass(), entity.getId());
+		var remaining = new ArrayList<>(getLinks(entity).get(target));
+		boolean held = remaining.remove(targetId);
 
-				return client.updateItem(updateTargetLinksRequest);
-			})
-			.thenApply(ignore -> {
-				getLinks(entity).remove(table(clazz), targetId);
+		//always clear the far side as the target is named even if this entity no longer has the link
+		var change = new LinkChange(target, targetId);
+		change.remove(table(entity.getClass()), entity.getId());
 
-				return entity;
-			});
+		return updateEntityLinks(organisationId, entity, Map.of(target, remaining))
+			.thenCompose(e ->
+				//the stream only sees links that change on this entity so a far side it no longer held is cleared here
+				(held ? updateReverseLinks(organisationId, List.of(change)) : updateLinks(organisationId, change))
+					.thenApply(__ -> {
+						setLinks(entity, target, remaining);
+						return e;
+					})
+			);
 	}
 
-	private <T extends Table> UpdateItemRequest createRemoveLinkRequest(
-		final String organisationId,
-		final T entity,
-		final Class<? extends Table> clazz,
-		final String targetId
-	) {
-		final AttributeValue linkMap = AttributeValue
-			.builder()
-			.m(
-				getLinks(entity)
-					.asMap()
-					.entrySet()
-					.stream()
-					.filter(entry -> !entry.getValue().contains(targetId) && !entry.getKey().equals(table(clazz)))
-					.collect(Collectors.toMap(Map.Entry::getKey, entry -> AttributeValue.builder().ss(entry.getValue()).build()))
-			)
-			.build();
-
-		// It would be nice to pull the revision logic out
-		final var revisionNumber = entity.getRevision() != 0 ? String.valueOf(entity.getRevision() + Integer.parseInt(REVISION_INCREMENT.n())) : "0";
-
-		final var revision = AttributeValueUpdate.builder().action(AttributeAction.PUT).value(AttributeValue.builder().n(revisionNumber).build()).build();
-
-		final var linksAttributeMap = Map.of("revision", revision, "links", AttributeValueUpdate.builder().action(AttributeAction.PUT).value(linkMap).build());
-
-		final Map<String, AttributeValue> entityItem = mapWithKeys(organisationId, entity);
+	public <T extends Table> CompletableFuture<T> deleteLinks(String organisationId, T entity) {
+		return write(() -> deleteAllLinks(organisationId, entity));
+	}
 
-		return UpdateItemRequest.builder().tableName(entityTable).key(entityItem).attributeUpdates(linksAttributeMap).build();
+	private <T extends Table> CompletableFuture<T> deleteAllLinks(String organisationId, T entity) {
+		if (getExtractor(entity.getClass()).isPresent()) {
+			if (getLinks(entity).isEmpty()) {
+				return CompletableFuture.completedFuture(entity);
+			}
+			throw new UnsupportedOperationException("hashed objects can not be linked");
+		}
+		if (!hasEdges(entity.getClass())) {
+			return deleteItemLinks(organisationId, entity);
+		}
+		//edges are not loaded with the entity so have to be looked up to know if there are any
+		return deleteItemLinks(organisationId, entity).thenCompose(e -> deleteEdges(organisationId, entity).thenApply(__ -> e));
 	}
 
-	public <T extends Table> CompletableFuture<T> deleteLinks(String organisationId, T entity) {
+	private <T extends Table> CompletableFuture<T> deleteItemLinks(String organisationId, T entity) {
 		if (getLinks(entity).isEmpty()) {
 			return CompletableFuture.completedFuture(entity);
 		}
-		if (getExtractor(entity.getClass()).isPresent()) {
-			throw new UnsupportedOperationException("hashed objects can not be linked");
-		}
 
-		var organisationIdAttribute = AttributeValue.builder().s(organisationId).build();
-		var id = AttributeValue.builder().s(table(entity.getClass()) + ":" + entity.getId()).build();
 		//we first clear out our own object
-
 		long revision = entity.getRevision();
 		Map<String, AttributeValue> values = new HashMap<>();
 		values.put(":val", AttributeValue.builder().m(new HashMap<>()).build());
 		values.put(":revisionIncrement", REVISION_INCREMENT);
+		track(entity.getClass());
+		var changed = stampChanged(values, organisationId, table(entity.getClass()));
 
-		Map<String, AttributeValue> sourceKey = new HashMap<>();
-		sourceKey.put("organisationId", organisationIdAttribute);
-		sourceKey.put("id", id);
+		Map<String, AttributeValue> sourceKey = mapWithKeys(organisationId, entity);
 
 		var clearEntity = client
 			.updateItem(request ->
 				request
 					.tableName(entityTable)
 					.key(sourceKey)
-					.updateExpression("SET links = :val ADD revision :revisionIncrement")
+					.updateExpression("SET links = :val" + (changed == null ? "" : ", " + changed) + addRevision())
 					.returnValues(ReturnValue.UPDATED_NEW)
 					.applyMutation(mutator -> {
 						String sourceTable = getSourceTable(entity);
@@ -1311,40 +2445,158 @@ public class DynamoDb extends DatabaseDriver {
 
 		//after we successfully clear out our object we clear the remote references
 		return clearEntity.thenCompose(r -> {
-			CompletableFuture<?> future = CompletableFuture.completedFuture(null);
-
-			var val = AttributeValue.builder().ss(entity.getId()).build();
 			String source = table(entity.getClass());
-			for (var link : getLinks(entity).entries()) {
-				var targetIdAttribute = AttributeValue.builder().s(link.getKey() + ":" + link.getValue()).build();
-				Map<String, AttributeValue> targetKey = new HashMap<>();
-				targetKey.put("organisationId", organisationIdAttribute);
-				targetKey.put("id", targetIdAttribute);
+			var changes = getLinks(entity)
+				.entries()
+				.stream()
+				.map(link -> {
+					var change = new LinkChange(link.getKey(), link.getValue());
+					change.remove(source, entity.getId());
+					return change;
+				})
+				.collect(Collectors.toList());
+			return updateReverseLinks(organisationId, changes)
+				.thenApply(__ -> {
+					getLinks(entity).clear();
+					return r;
+				});
+		});
+	}
 
-				Map<String, AttributeValue> v = new HashMap<>();
-				v.put(":val", val);
-				v.put(":revisionIncrement", REVISION_INCREMENT);
+	private CompletableFuture<Void> linkEdges(String organisationId, Table entity, Map<String, Collection<String>> edges) {
+		var source = table(entity.getClass());
+		var futures = edges
+			.entrySet()
+			.stream()
+			.map(entry -> {
+				var target = entry.getKey();
+				var targetIds = new HashSet<>(entry.getValue());
+				return getEdges(organisationId, edgePrefix(source, entity.getId(), target))
+					.thenCompose(existing -> {
+						var current = existing.get(target);
+						List<WriteRequest> writes = new ArrayList<>();
+						for (var id : current) {
+							if (!targetIds.contains(id)) {
+								writes.add(removeEdge(organisationId, source, entity.getId(), target, id));
+								writes.add(removeEdge(organisationId, target, id, source, entity.getId()));
+							}
+						}
+						for (var id : targetIds) {
+							if (!current.contains(id)) {
+								writes.add(putEdge(organisationId, source, entity.getId(), target, id, false));
+								writes.add(putEdge(organisationId, target, id, source, entity.getId(), false));
+							}
+						}
+						return writeEdges(writes);
+					});
+			})
+			.toArray(CompletableFuture[]::new);
+		return CompletableFuture.allOf(futures);
+	}
 
-				Map<String, String> k = new HashMap<>();
-				k.put("#table", source);
+	private CompletableFuture<Void> deleteEdges(String organisationId, Table entity) {
+		var source = table(entity.getClass());
+		return getEdges(organisationId, edgePrefix(source, entity.getId()))
+			.thenCompose(edges -> {
+				List<WriteRequest> writes = new ArrayList<>();
+				for (var edge : edges.entries()) {
+					writes.add(removeEdge(organisationId, source, entity.getId(), edge.getKey(), edge.getValue()));
+					writes.add(removeEdge(organisationId, edge.getKey(), edge.getValue(), source, entity.getId()));
+				}
+				return writeEdges(writes);
+			});
+	}
 
-				var destination = client.updateItem(request ->
-					request
-						.tableName(entityTable)
-						.key(targetKey)
-						.updateExpression("DELETE links.#table :val ADD revision :revisionIncrement")
-						.expressionAttributeNames(k)
-						.expressionAttributeValues(v)
-				);
-				future = future.thenCombine(destination, (a, b) -> b);
-			}
-			getLinks(entity).clear();
-			return future.thenApply(__ -> r);
-		});
+	/**
+	 * Pages through the edge rows starting with the prefix in every table, upper tables replacing what is in lower ones.
+	 *
+	 * @return target ids keyed by the target table
+	 */
+	private CompletableFuture<HashMultimap<String, String>> getEdges(String organisationId, String prefix) {
+		var futures = entityTables.stream().map(table -> getEdges(organisationId, table, prefix)).collect(Collectors.toList());
+		return CompletableFutureUtil
+			.sequence(futures)
+			.thenApply(results -> {
+				Map<String, Map<String, AttributeValue>> rows = new HashMap<>();
+				results.forEach(items -> items.forEach(item -> rows.put(item.get("id").s(), item)));
+
+				HashMultimap<String, String> toReturn = HashMultimap.create();
+				rows
+					.values()
+					.forEach(item -> {
+						var deleted = item.get("deleted");
+						if (deleted == null || !deleted.bool()) {
+							toReturn.put(item.get("targetType").s(), item.get("targetId").s());
+						}
+					});
+				return toReturn;
+			});
+	}
+
+	private CompletableFuture<List<Map<String, AttributeValue>>> getEdges(String organisationId, String table, String prefix) {
+		Map<String, AttributeValue> keyConditions = new HashMap<>();
+		keyConditions.put(":organisationId", AttributeValue.builder().s(organisationId).build());
+		keyConditions.put(":prefix", AttributeValue.builder().s(prefix).build());
+
+		var toReturn = Collections.synchronizedList(new ArrayList<Map<String, AttributeValue>>());
+		return client
+			.queryPaginator(r ->
+				r
+					.tableName(table)
+					.consistentRead(true)
+					.keyConditionExpression("organisationId = :organisationId AND begins_with(id, :prefix)")
+					.expressionAttributeValues(keyConditions)
+			)
+			.subscribe(response -> toReturn.addAll(response.items()))
+			.thenApply(__ -> toReturn);
+	}
+
+	private WriteRequest putEdge(String organisationId, String table, String id, String targetTable, String targetId, boolean deleted) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("organisationId", AttributeValue.builder().s(organisationId).build());
+		item.put("id", AttributeValue.builder().s(edgePrefix(table, id, targetTable) + targetId).build());
+		item.put("targetType", AttributeValue.builder().s(targetTable).build());
+		item.put("targetId", AttributeValue.builder().s(targetId).build());
+		if (deleted) {
+			item.put("deleted", AttributeValue.builder().bool(true).build());
+		}
+		return WriteRequest.builder().putRequest(builder -> builder.item(item)).build();
+	}
+
+	private WriteRequest removeEdge(String organisationId, String table, String id, String targetTable, String targetId) {
+		if (entityTables.size() > 1) {
+			//lower tables may still have the edge so mark as deleted not actual delete
+			return putEdge(organisationId, table, id, targetTable, targetId, true);
+		}
+		Map<String, AttributeValue> key = new HashMap<>();
+		key.put("organisationId", AttributeValue.builder().s(organisationId).build());
+		key.put("id", AttributeValue.builder().s(edgePrefix(table, id, targetTable) + targetId).build());
+		return WriteRequest.builder().deleteRequest(builder -> builder.key(key)).build();
+	}
+
+	private CompletableFuture<Void> writeEdges(List<WriteRequest> writes) {
+		var all = Lists
+			.partition(writes, batchWriteSize)
+			.stream()
+			.map(chunk -> putItems(0, Map.of(entityTable, chunk)))
+			.toArray(CompletableFuture[]::new);
+		return CompletableFuture.allOf(all);
+	}
+
+	private static String edgePrefix(String table, String id) {
+		return "edge:" + table + ":" + id + ":";
+	}
+
+	private static String edgePrefix(String table, String id, String targetTable) {
+		return edgePrefix(table, id) + targetTable + ":";
 	}
 
 	@Override
 	public CompletableFuture<Boolean> destroyOrganisation(final String organisationId) {
+		return write(() -> destroy(organisationId));
+	}
+
+	private CompletableFuture<Boolean> destroy(final String organisationId) {
 		if (hash && hashKeyExpander == null) {
 			throw new UnsupportedOperationException("To destoryOrganisations on hashed databases must specify hashLocators");
 		}
@@ -1442,6 +2694,14 @@ public class DynamoDb extends DatabaseDriver {
 		return mapWithKeys(organisationId, type, id, false);
 	}
 
+	private Map<String, AttributeValue> mapWithKeys(String organisationId, String table, String id) {
+		//only for types that can be linked so never hashed
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("organisationId", AttributeValue.builder().s(organisationId).build());
+		item.put("id", AttributeValue.builder().s(table + ":" + id).build());
+		return item;
+	}
+
 	private <T extends Table> Optional<HashExtractor> getExtractor(Class<T> type) {
 		if (!hash) {
 			return Optional.empty();
@@ -1468,6 +2728,36 @@ public class DynamoDb extends DatabaseDriver {
 		);
 	}
 
+	private boolean isEdge(Class<? extends Table> type, Class<? extends Table> target) {
+		return getEdgeTables(type).contains(table(target)) || getEdgeTables(target).contains(table(type));
+	}
+
+	/**
+	 * @return if entities of the type can have edge rows, either declaring EdgeLinks or named by a type found on the
+	 * class path that does. Without a class path any type could be named so all of them can.
+	 */
+	private boolean hasEdges(Class<? extends Table> type) {
+		return !classPathScanned || !getEdgeTables(type).isEmpty() || edgeTargets.contains(table(type));
+	}
+
+	private Set<String> getEdgeTables(Class<? extends Table> type) {
+		return edgeCache.computeIfAbsent(
+			type,
+			t -> {
+				Class<?> tmp = t;
+				EdgeLinks edgeLinks = null;
+				while (edgeLinks == null && tmp != null) {
+					edgeLinks = tmp.getDeclaredAnnotation(EdgeLinks.class);
+					tmp = tmp.getSuperclass();
+				}
+				if (edgeLinks == null) {
+					return Collections.emptySet();
+				}
+				return Arrays.stream(edgeLinks.value()).map(TableCoreUtil::table).collect(Collectors.toSet());
+			}
+		);
+	}
+
 	private <T extends Table> Map<String, AttributeValue> mapWithKeys(String organisationId, Class<T> type, final String id, boolean addHash) {
 		Map<String, AttributeValue> item = new HashMap<>();
 
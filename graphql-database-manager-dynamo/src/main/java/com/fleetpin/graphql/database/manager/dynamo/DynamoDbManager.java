@@ -24,6 +24,7 @@ import com.fleetpin.graphql.database.manager.DatabaseDriver;
 import com.fleetpin.graphql.database.manager.DatabaseManager;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -38,12 +39,14 @@ public final class DynamoDbManager extends DatabaseManager {
 	private final ObjectMapper mapper;
 	private final Supplier<String> idGenerator;
 	private final DynamoDbAsyncClient client;
+	private final HedgingMetrics hedgingMetrics;
 
 	private DynamoDbManager(ObjectMapper mapper, Supplier<String> idGenerator, DynamoDbAsyncClient client, DatabaseDriver dynamoDb) {
 		super(dynamoDb);
 		this.mapper = mapper;
 		this.idGenerator = idGenerator;
 		this.client = client;
+		this.hedgingMetrics = dynamoDb instanceof DynamoDb ? ((DynamoDb) dynamoDb).getHedgingMetrics() : null;
 	}
 
 	public static DyanmoDbManagerBuilder builder() {
@@ -63,6 +66,7 @@ public final class DynamoDbManager extends DatabaseManager {
 		private boolean globalEnabled = true;
 		private boolean hash = false;
 		private String classPath = null;
+		private final DynamoDbOptions.Builder options = DynamoDbOptions.builder();
 
 		public DyanmoDbManagerBuilder dynamoDbAsyncClient(DynamoDbAsyncClient client) {
 			this.client = client;
@@ -129,6 +133,62 @@ public final class DynamoDbManager extends DatabaseManager {
 			return this;
 		}
 
+		public DyanmoDbManagerBuilder asyncLinks(boolean asyncLinks) {
+			options.asyncLinks(asyncLinks);
+			return this;
+		}
+
+		public DyanmoDbManagerBuilder emptyPartitionTtl(Duration emptyPartitionTtl) {
+			options.emptyPartitionTtl(emptyPartitionTtl);
+			return this;
+		}
+
+		public DyanmoDbManagerBuilder tieredGets(boolean tieredGets) {
+			options.tieredGets(tieredGets);
+			return this;
+		}
+
+		/**
+		 * @see DynamoDbOptions.Builder#hedging(double, double)
+		 */
+		public DyanmoDbManagerBuilder hedging(double percentile, double budget) {
+			options.hedging(percentile, budget);
+			return this;
+		}
+
+		/**
+		 * @see DynamoDbOptions.Builder#secondaryFromIndex(boolean)
+		 */
+		public DyanmoDbManagerBuilder secondaryFromIndex(boolean secondaryFromIndex) {
+			options.secondaryFromIndex(secondaryFromIndex);
+			return this;
+		}
+
+		/**
+		 * @see DynamoDbOptions.Builder#secondaryIndex(String, String, String)
+		 */
+		public DyanmoDbManagerBuilder secondaryIndex(String name, String indexName, String attribute) {
+			options.secondaryIndex(name, indexName, attribute);
+			return this;
+		}
+
+		/**
+		 * Shares identical reads made at the same time by every database of this manager
+		 * @see DynamoDbOptions.Builder#singleFlight(Duration)
+		 */
+		public DyanmoDbManagerBuilder singleFlight(Duration window) {
+			options.singleFlight(window);
+			return this;
+		}
+
+		/**
+		 * @see DynamoDbOptions.Builder#tombstoneRetention(Duration)
+		 */
+		public DyanmoDbManagerBuilder tombstoneRetention(Duration tombstoneRetention) {
+			options.tombstoneRetention(tombstoneRetention);
+			return this;
+		}
+
 		public DynamoDbManager build() {
 			Preconditions.checkNotNull(tables, "Tables must be set");
 			Preconditions.checkArgument(!tables.isEmpty(), "Empty table array");
@@ -156,7 +216,19 @@ public final class DynamoDbManager extends DatabaseManager {
 			database =
 				Objects.requireNonNullElse(
 					database,
-					new DynamoDb(mapper, tables, historyTable, client, idGenerator, batchWriteSize, maxRetry, globalEnabled, hash, classPath)
+					new DynamoDb(
+						mapper,
+						tables,
+						historyTable,
+						client,
+						idGenerator,
+						batchWriteSize,
+						maxRetry,
+						globalEnabled,
+						hash,
+						classPath,
+						options.build()
+					)
 				);
 
 			return new DynamoDbManager(mapper, idGenerator, client, database);
@@ -187,4 +259,11 @@ public final class DynamoDbManager extends DatabaseManager {
 	public DynamoDbAsyncClient getDynamoDbAsyncClient() {
 		return client;
 	}
+
+	/**
+	 * @return hedging counts, null if the manager was built around a custom database driver
+	 */
+	public HedgingMetrics getHedgingMetrics() {
+		return hedgingMetrics;
+	}
 }
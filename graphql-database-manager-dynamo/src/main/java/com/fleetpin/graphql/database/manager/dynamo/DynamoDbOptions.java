@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import com.google.common.base.Preconditions;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Optional behaviour of the dynamo driver. Every option defaults to how the driver behaved before it existed so new
+ * options can be added without changing how the driver is constructed.
+ */
+public final class DynamoDbOptions {
+
+	private final boolean asyncLinks;
+	private final Duration emptyPartitionTtl;
+	private final boolean tieredGets;
+	private final double hedgePercentile;
+	private final double hedgeBudget;
+	private final Duration singleFlightWindow;
+	private final boolean secondaryFromIndex;
+	private final Map<String, SecondaryIndexMapping> secondaryIndexes;
+	private final Duration tombstoneRetention;
+
+	private DynamoDbOptions(Builder builder) {
+		this.asyncLinks = builder.asyncLinks;
+		this.emptyPartitionTtl = builder.emptyPartitionTtl;
+		this.tieredGets = builder.tieredGets;
+		this.hedgePercentile = builder.hedgePercentile;
+		this.hedgeBudget = builder.hedgeBudget;
+		this.singleFlightWindow = builder.singleFlightWindow;
+		this.secondaryFromIndex = builder.secondaryFromIndex;
+		this.secondaryIndexes = Map.copyOf(builder.secondaryIndexes);
+		this.tombstoneRetention = builder.tombstoneRetention;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	boolean isAsyncLinks() {
+		return asyncLinks;
+	}
+
+	Duration getEmptyPartitionTtl() {
+		return emptyPartitionTtl;
+	}
+
+	boolean isTieredGets() {
+		return tieredGets;
+	}
+
+	double getHedgePercentile() {
+		return hedgePercentile;
+	}
+
+	double getHedgeBudget() {
+		return hedgeBudget;
+	}
+
+	/**
+	 * @return null when reads are not shared
+	 */
+	Duration getSingleFlightWindow() {
+		return singleFlightWindow;
+	}
+
+	boolean isSecondaryFromIndex() {
+		return secondaryFromIndex;
+	}
+
+	Map<String, SecondaryIndexMapping> getSecondaryIndexes() {
+		return secondaryIndexes;
+	}
+
+	Duration getTombstoneRetention() {
+		return tombstoneRetention;
+	}
+
+	public static final class Builder {
+
+		private boolean asyncLinks = false;
+		private Duration emptyPartitionTtl = Duration.ZERO;
+		private boolean tieredGets = false;
+		private double hedgePercentile = 0.95;
+		private double hedgeBudget = 0;
+		private Duration singleFlightWindow;
+		private boolean secondaryFromIndex = false;
+		private final Map<String, SecondaryIndexMapping> secondaryIndexes = new HashMap<>();
+		private Duration tombstoneRetention = Duration.ofDays(30);
+
+		private Builder() {}
+
+		/**
+		 * Leaves updating the far side of links to the stream consumer
+		 */
+		public Builder asyncLinks(boolean asyncLinks) {
+			this.asyncLinks = asyncLinks;
+			return this;
+		}
+
+		/**
+		 * How long a lower table partition found to be empty is skipped by queries, zero to never skip
+		 */
+		public Builder emptyPartitionTtl(Duration emptyPartitionTtl) {
+			Preconditions.checkArgument(!emptyPartitionTtl.isNegative(), "Empty partition ttl can not be negative");
+			this.emptyPartitionTtl = emptyPartitionTtl;
+			return this;
+		}
+
+		/**
+		 * Reads gets from the top table first and only asks lower tables for what it did not decide
+		 */
+		public Builder tieredGets(boolean tieredGets) {
+			this.tieredGets = tieredGets;
+			return this;
+		}
+
+		/**
+		 * @param percentile of recent read latencies to wait before sending a duplicate read
+		 * @param budget most duplicate reads as a fraction of all reads, 0 turns hedging off
+		 */
+		public Builder hedging(double percentile, double budget) {
+			Preconditions.checkArgument(percentile > 0 && percentile < 1, "Percentile must be between 0 and 1");
+			Preconditions.checkArgument(budget >= 0 && budget <= 1, "Budget must be between 0 and 1");
+			this.hedgePercentile = percentile;
+			this.hedgeBudget = budget;
+			return this;
+		}
+
+		/**
+		 * Shares identical reads made at the same time, and packs their keys together when they arrive within the window
+		 * @param window how long a key waits for others to share its batch get
+		 */
+		public Builder singleFlight(Duration window) {
+			Preconditions.checkArgument(!window.isNegative(), "Window can not be negative");
+			this.singleFlightWindow = window;
+			return this;
+		}
+
+		/**
+		 * Builds secondary index results from the index rows rather than reading each item again, the
+		 * secondaryOrganisation index must project all attributes
+		 */
+		public Builder secondaryFromIndex(boolean secondaryFromIndex) {
+			this.secondaryFromIndex = secondaryFromIndex;
+			return this;
+		}
+
+		/**
+		 * Stores a named secondary index in the given index and attribute, names without a mapping use secondary followed
+		 * by the name for both
+		 */
+		public Builder secondaryIndex(String name, String indexName, String attribute) {
+			this.secondaryIndexes.put(name, new SecondaryIndexMapping(indexName, attribute));
+			return this;
+		}
+
+		/**
+		 * How long the tombstone of a deleted entity that tracks changes is kept, syncs that last ran longer ago than this
+		 * can miss deletes. The rows carry the expiry in epoch seconds in the ttl attribute, which the table's time to live
+		 * has to be set to.
+		 */
+		public Builder tombstoneRetention(Duration tombstoneRetention) {
+			Preconditions.checkArgument(!tombstoneRetention.isNegative() && !tombstoneRetention.isZero(), "Tombstone retention must be positive");
+			this.tombstoneRetention = tombstoneRetention;
+			return this;
+		}
+
+		public DynamoDbOptions build() {
+			return new DynamoDbOptions(this);
+		}
+	}
+}
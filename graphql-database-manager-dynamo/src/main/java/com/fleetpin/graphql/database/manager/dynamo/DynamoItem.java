@@ -78,7 +78,8 @@ public class DynamoItem implements Comparable<DynamoItem> {
 			if (revision != null) {
 				t.setRevision(Long.parseLong(revision.n()));
 			}
-			TableAccess.setTableSource(t, this.table, links, organisationId);
+			//the item may be shared between reads so each entity gets links of its own
+			TableAccess.setTableSource(t, this.table, HashMultimap.create(links), organisationId);
 		}
 		return table;
 	}
@@ -0,0 +1,264 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetpin.graphql.database.manager.QueryFilter;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.core.util.DefaultSdkAutoConstructList;
+import software.amazon.awssdk.core.util.DefaultSdkAutoConstructMap;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * A query filter compiled into a dynamo filter expression over the stored item. Partitions that can not be filtered
+ * where they are read use {@link #matches(DynamoItem)}, which follows the same rules on the raw row so nothing is
+ * converted to an entity before it is known to be wanted.
+ */
+final class FilterExpression {
+
+	private final QueryFilter filter;
+	private final String expression;
+	private final Map<String, String> names = new HashMap<>();
+	private final Map<String, String> fieldNames = new HashMap<>();
+	private final Map<String, AttributeValue> values = new HashMap<>();
+	private final Map<QueryFilter, AttributeValue> attributes = new IdentityHashMap<>();
+
+	FilterExpression(ObjectMapper mapper, QueryFilter filter) {
+		this.filter = filter;
+		this.expression = compile(mapper, filter);
+	}
+
+	String getExpression() {
+		return expression;
+	}
+
+	/**
+	 * Placeholders use their own prefix so they can be added to those of the key condition and projection
+	 */
+	Map<String, String> getNames() {
+		return names;
+	}
+
+	Map<String, AttributeValue> getValues() {
+		return values;
+	}
+
+	/**
+	 * @return the entity fields the filter reads
+	 */
+	static Set<String> fields(QueryFilter filter) {
+		if (filter.getPath() != null) {
+			return Set.of(filter.getPath().get(0));
+		}
+		return filter.getFilters().stream().flatMap(f -> fields(f).stream()).collect(Collectors.toSet());
+	}
+
+	boolean matches(DynamoItem item) {
+		var stored = item.getItem().get("item");
+		return stored != null && matches(filter, stored);
+	}
+
+	private String compile(ObjectMapper mapper, QueryFilter filter) {
+		switch (filter.getOperator()) {
+			case AND:
+				return join(mapper, filter.getFilters(), " AND ");
+			case OR:
+				return join(mapper, filter.getFilters(), " OR ");
+			case NOT:
+				return "(NOT " + compile(mapper, filter.getFilters().get(0)) + ")";
+			case EXISTS:
+				return "attribute_exists(" + path(filter) + ")";
+			case NOT_EXISTS:
+				return "attribute_not_exists(" + path(filter) + ")";
+			default:
+				break;
+		}
+		var value = ":qf" + values.size();
+		var attribute = TableUtil.toAttribute(mapper.valueToTree(filter.getValue()));
+		if (attribute == null) {
+			throw new IllegalArgumentException("Empty strings are never stored, filter on " + String.join(".", filter.getPath()) + " not existing instead");
+		}
+		values.put(value, attribute);
+		attributes.put(filter, attribute);
+		switch (filter.getOperator()) {
+			case EQUAL:
+				return path(filter) + " = " + value;
+			case NOT_EQUAL:
+				return path(filter) + " <> " + value;
+			case LESS_THAN:
+				return path(filter) + " < " + value;
+			case LESS_THAN_OR_EQUAL:
+				return path(filter) + " <= " + value;
+			case GREATER_THAN:
+				return path(filter) + " > " + value;
+			case GREATER_THAN_OR_EQUAL:
+				return path(filter) + " >= " + value;
+			case CONTAINS:
+				return "contains(" + path(filter) + ", " + value + ")";
+			default:
+				throw new RuntimeException("unknown filter operator " + filter.getOperator());
+		}
+	}
+
+	private String join(ObjectMapper mapper, List<QueryFilter> filters, String operator) {
+		return filters.stream().map(filter -> compile(mapper, filter)).collect(Collectors.joining(operator, "(", ")"));
+	}
+
+	private String path(QueryFilter filter) {
+		names.put("#item", "item");
+		var path = new StringBuilder("#item");
+		for (var field : filter.getPath()) {
+			var name = fieldNames.computeIfAbsent(field, __ -> "#qf" + fieldNames.size());
+			names.put(name, field);
+			path.append('.').append(name);
+		}
+		return path.toString();
+	}
+
+	private boolean matches(QueryFilter filter, AttributeValue item) {
+		switch (filter.getOperator()) {
+			case AND:
+				return filter.getFilters().stream().allMatch(f -> matches(f, item));
+			case OR:
+				return filter.getFilters().stream().anyMatch(f -> matches(f, item));
+			case NOT:
+				return !matches(filter.getFilters().get(0), item);
+			default:
+				break;
+		}
+		var field = resolve(item, filter.getPath());
+		var value = attributes.get(filter);
+		switch (filter.getOperator()) {
+			case EXISTS:
+				return field != null;
+			case NOT_EXISTS:
+				return field == null;
+			case EQUAL:
+				return field != null && equal(field, value);
+			case NOT_EQUAL:
+				//dynamo treats a missing attribute as not equal to anything
+				return field == null || !equal(field, value);
+			case LESS_THAN:
+				return ordered(field, value, compare -> compare < 0);
+			case LESS_THAN_OR_EQUAL:
+				return ordered(field, value, compare -> compare <= 0);
+			case GREATER_THAN:
+				return ordered(field, value, compare -> compare > 0);
+			case GREATER_THAN_OR_EQUAL:
+				return ordered(field, value, compare -> compare >= 0);
+			case CONTAINS:
+				return contains(field, value);
+			default:
+				throw new RuntimeException("unknown filter operator " + filter.getOperator());
+		}
+	}
+
+	private static boolean isList(List<?> list) {
+		return list != DefaultSdkAutoConstructList.getInstance();
+	}
+
+	private static boolean isMap(Map<?, ?> map) {
+		return map != DefaultSdkAutoConstructMap.getInstance();
+	}
+
+	private static AttributeValue resolve(AttributeValue item, List<String> path) {
+		var current = item;
+		for (var field : path) {
+			if (current == null || !isMap(current.m())) {
+				return null;
+			}
+			current = current.m().get(field);
+		}
+		return current;
+	}
+
+	private static boolean equal(AttributeValue a, AttributeValue b) {
+		if (a.n() != null && b.n() != null) {
+			return new BigDecimal(a.n()).compareTo(new BigDecimal(b.n())) == 0;
+		}
+		if (isList(a.l()) && isList(b.l())) {
+			if (a.l().size() != b.l().size()) {
+				return false;
+			}
+			for (int i = 0; i < a.l().size(); i++) {
+				if (!equal(a.l().get(i), b.l().get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (isMap(a.m()) && isMap(b.m())) {
+			if (!a.m().keySet().equals(b.m().keySet())) {
+				return false;
+			}
+			return a.m().entrySet().stream().allMatch(e -> equal(e.getValue(), b.m().get(e.getKey())));
+		}
+		return a.equals(b);
+	}
+
+	/**
+	 * Only numbers, strings and binaries of the same type can be ordered, anything else fails every ordering operator
+	 */
+	private static boolean ordered(AttributeValue field, AttributeValue value, IntPredicate test) {
+		if (field == null) {
+			return false;
+		}
+		if (field.n() != null && value.n() != null) {
+			return test.test(new BigDecimal(field.n()).compareTo(new BigDecimal(value.n())));
+		}
+		if (field.s() != null && value.s() != null) {
+			return test.test(QueryMerger.compare(field.s(), value.s()));
+		}
+		if (field.b() != null && value.b() != null) {
+			return test.test(compareBytes(field.b().asByteArray(), value.b().asByteArray()));
+		}
+		return false;
+	}
+
+	private static int compareBytes(byte[] a, byte[] b) {
+		for (int i = 0; i < Math.min(a.length, b.length); i++) {
+			int compare = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+			if (compare != 0) {
+				return compare;
+			}
+		}
+		return Integer.compare(a.length, b.length);
+	}
+
+	private static boolean contains(AttributeValue field, AttributeValue value) {
+		if (field == null) {
+			return false;
+		}
+		if (field.s() != null) {
+			return value.s() != null && field.s().contains(value.s());
+		}
+		if (isList(field.l())) {
+			return field.l().stream().anyMatch(element -> equal(element, value));
+		}
+		if (isList(field.ss())) {
+			return value.s() != null && field.ss().contains(value.s());
+		}
+		if (isList(field.ns())) {
+			return value.n() != null && field.ns().stream().anyMatch(n -> new BigDecimal(n).compareTo(new BigDecimal(value.n())) == 0);
+		}
+		return false;
+	}
+}
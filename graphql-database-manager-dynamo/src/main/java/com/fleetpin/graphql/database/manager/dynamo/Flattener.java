@@ -69,10 +69,13 @@ public final class Flattener {
 	}
 
 	private void addItem(DynamoItem item) {
-		lookup.merge(getId(item), item, this::merge);
+		lookup.merge(getId(item), item, (existing, replace) -> merge(tables, existing, replace));
 	}
 
-	private DynamoItem merge(DynamoItem existing, DynamoItem replace) {
+	/**
+	 * Layers two rows for the same id, the row from the higher table wins but picks up the item and links of the lower one.
+	 */
+	static DynamoItem merge(List<String> tables, DynamoItem existing, DynamoItem replace) {
 		if (tables.indexOf(existing.getTable()) > tables.indexOf(replace.getTable())) {
 			var tmp = existing;
 			existing = replace;
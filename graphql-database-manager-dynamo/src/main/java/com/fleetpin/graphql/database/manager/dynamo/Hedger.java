@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Sends a duplicate of a read that has taken longer than the configured percentile of recent reads and uses whichever
+ * answers first. Duplicates are capped to a fraction of all reads so a slow table is not hit twice as hard.
+ */
+final class Hedger {
+
+	private static final int SAMPLES = 1024;
+	private static final int MIN_SAMPLES = 100;
+	private static final int RECALCULATE = 64;
+
+	private final double percentile;
+	private final double budget;
+	private final HedgingMetrics metrics;
+
+	private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+	private final AtomicLong recorded = new AtomicLong();
+	private volatile long delay = -1;
+
+	/**
+	 * @param percentile of recent latencies to wait before hedging, for example 0.95
+	 * @param budget most hedges as a fraction of all reads, 0 turns hedging off
+	 */
+	Hedger(double percentile, double budget, HedgingMetrics metrics) {
+		this.percentile = percentile;
+		this.budget = budget;
+		this.metrics = metrics;
+	}
+
+	boolean isEnabled() {
+		return budget > 0;
+	}
+
+	<T> CompletableFuture<T> send(Supplier<CompletableFuture<T>> request) {
+		if (!isEnabled()) {
+			return request.get();
+		}
+		metrics.request();
+		long start = System.nanoTime();
+		var primary = request.get();
+		primary.whenComplete((response, error) -> {
+			//a primary cancelled because its hedge won took at least this long, leaving it out would pull the delay down
+			if (error == null || error instanceof CancellationException) {
+				record(System.nanoTime() - start);
+			}
+		});
+
+		long delay = this.delay;
+		if (delay < 0) {
+			//not enough samples to know what slow looks like yet
+			return primary;
+		}
+
+		var result = new CompletableFuture<T>();
+		primary.whenComplete((response, error) -> {
+			if (error == null) {
+				result.complete(response);
+			} else {
+				result.completeExceptionally(error);
+			}
+		});
+		CompletableFuture
+			.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+			.execute(() -> {
+				if (result.isDone() || metrics.getHedges() >= budget * metrics.getRequests()) {
+					return;
+				}
+				metrics.hedge();
+				var hedge = request.get();
+				hedge.thenAccept(response -> {
+					if (result.complete(response)) {
+						metrics.hedgeWin();
+						primary.cancel(true);
+					}
+				});
+				result.thenRun(() -> hedge.cancel(true));
+			});
+		return result;
+	}
+
+	private void record(long latency) {
+		long index = recorded.getAndIncrement();
+		latencies.set((int) (index % SAMPLES), latency);
+		long count = index + 1;
+		if (count >= MIN_SAMPLES && count % RECALCULATE == 0) {
+			int size = (int) Math.min(count, SAMPLES);
+			long[] sorted = new long[size];
+			for (int i = 0; i < size; i++) {
+				sorted[i] = latencies.get(i);
+			}
+			Arrays.sort(sorted);
+			this.delay = sorted[(int) (percentile * (size - 1))];
+		}
+	}
+}
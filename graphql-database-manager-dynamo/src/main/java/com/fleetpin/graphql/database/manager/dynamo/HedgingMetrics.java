@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts of hedged reads, shared by every database made from the same manager.
+ */
+public final class HedgingMetrics {
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong hedges = new AtomicLong();
+	private final AtomicLong hedgeWins = new AtomicLong();
+
+	HedgingMetrics() {}
+
+	/**
+	 * @return reads that could have been hedged
+	 */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * @return duplicate requests sent because the first was slower than the hedging delay
+	 */
+	public long getHedges() {
+		return hedges.get();
+	}
+
+	/**
+	 * @return duplicate requests that answered before the one they were hedging
+	 */
+	public long getHedgeWins() {
+		return hedgeWins.get();
+	}
+
+	void request() {
+		requests.incrementAndGet();
+	}
+
+	void hedge() {
+		hedges.incrementAndGet();
+	}
+
+	void hedgeWin() {
+		hedgeWins.incrementAndGet();
+	}
+}
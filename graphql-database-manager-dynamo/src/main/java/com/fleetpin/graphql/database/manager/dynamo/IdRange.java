@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import com.fleetpin.graphql.database.manager.Query;
+
+/**
+ * The id range a query reads within a table prefix. Dynamo only has an inclusive between so the key condition reads
+ * from the highest lower bound to the lowest upper bound and exclusive ends are dropped as rows are merged.
+ */
+final class IdRange {
+
+	private final String prefix;
+	private final String lower;
+	private final String upper;
+	private final String greaterThan;
+	private final String lessThan;
+
+	private IdRange(String prefix, String lower, String upper, String greaterThan, String lessThan) {
+		this.prefix = prefix;
+		this.lower = lower;
+		this.upper = upper;
+		this.greaterThan = greaterThan;
+		this.lessThan = lessThan;
+	}
+
+	/**
+	 * @param prefix the stored id every result starts with, the table and any starts with
+	 * @param table the table part of stored ids
+	 */
+	static IdRange of(String prefix, String table, Query<?> query) {
+		var greaterThan = query.getGreaterThan() == null ? null : table + query.getGreaterThan();
+		var lessThan = query.getLessThan() == null ? null : table + query.getLessThan();
+		//once there is a range after is just another exclusive bound, a start key outside the range is rejected by dynamo
+		if (query.getAfter() != null) {
+			if (query.isDescending()) {
+				lessThan = min(lessThan, table + query.getAfter());
+			} else {
+				greaterThan = max(greaterThan, table + query.getAfter());
+			}
+		}
+
+		var lower = prefix;
+		lower = max(lower, greaterThan);
+		lower = max(lower, query.getFrom() == null ? null : table + query.getFrom());
+
+		//nothing starting with the prefix can be past it with its last character incremented
+		var upper = prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+		upper = min(upper, lessThan);
+		upper = min(upper, query.getTo() == null ? null : table + query.getTo());
+		return new IdRange(prefix, lower, upper, greaterThan, lessThan);
+	}
+
+	String getLower() {
+		return lower;
+	}
+
+	String getUpper() {
+		return upper;
+	}
+
+	/**
+	 * @return true if no id can be in the range, dynamo rejects a between with the bounds the wrong way around
+	 */
+	boolean isEmpty() {
+		return QueryMerger.compare(lower, upper) > 0;
+	}
+
+	boolean contains(String id) {
+		if (!id.startsWith(prefix)) {
+			return false;
+		}
+		if (greaterThan != null && QueryMerger.compare(id, greaterThan) <= 0) {
+			return false;
+		}
+		if (lessThan != null && QueryMerger.compare(id, lessThan) >= 0) {
+			return false;
+		}
+		return true;
+	}
+
+	private static String max(String a, String b) {
+		if (a == null) {
+			return b;
+		}
+		if (b == null) {
+			return a;
+		}
+		return QueryMerger.compare(a, b) >= 0 ? a : b;
+	}
+
+	private static String min(String a, String b) {
+		if (a == null) {
+			return b;
+		}
+		if (b == null) {
+			return a;
+		}
+		return QueryMerger.compare(a, b) <= 0 ? a : b;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Where a paged index lookup stopped, the table being read and the last key the index returned from it. Tables are read
+ * one after another so everything above the table has already been returned.
+ */
+final class IndexCursor {
+
+	private final String table;
+	private final Map<String, AttributeValue> startKey;
+
+	IndexCursor(String table, Map<String, AttributeValue> startKey) {
+		this.table = table;
+		this.startKey = startKey;
+	}
+
+	String getTable() {
+		return table;
+	}
+
+	Map<String, AttributeValue> getStartKey() {
+		return startKey;
+	}
+
+	String encode(ObjectMapper mapper) {
+		var root = mapper.createObjectNode();
+		root.put("table", table);
+		var key = root.putObject("key");
+		startKey.forEach((name, value) -> key.put(name, value.s()));
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(mapper.writeValueAsBytes(root));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static IndexCursor decode(ObjectMapper mapper, String cursor) {
+		JsonNode root;
+		try {
+			root = mapper.readTree(Base64.getUrlDecoder().decode(cursor));
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid index cursor " + cursor, e);
+		}
+		if (root == null || !root.path("table").isTextual() || !root.path("key").isObject()) {
+			throw new IllegalArgumentException("Invalid index cursor " + cursor);
+		}
+		var startKey = new HashMap<String, AttributeValue>();
+		root.get("key").fields().forEachRemaining(field -> startKey.put(field.getKey(), AttributeValue.builder().s(field.getValue().asText()).build()));
+		return new IndexCursor(root.get("table").asText(), startKey);
+	}
+}
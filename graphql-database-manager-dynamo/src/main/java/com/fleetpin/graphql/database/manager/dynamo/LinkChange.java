@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The edges to add and remove on a single row, grouped by the table of the other end so every change to a row can
+ * be sent as one update.
+ */
+final class LinkChange {
+
+	private final String table;
+	private final String id;
+	private final Map<String, Set<String>> additions = new HashMap<>();
+	private final Map<String, Set<String>> removals = new HashMap<>();
+
+	LinkChange(String table, String id) {
+		this.table = table;
+		this.id = id;
+	}
+
+	String getTable() {
+		return table;
+	}
+
+	String getId() {
+		return id;
+	}
+
+	void add(String linkTable, String linkId) {
+		var removing = removals.get(linkTable);
+		if (removing != null) {
+			removing.remove(linkId);
+		}
+		additions.computeIfAbsent(linkTable, __ -> new HashSet<>()).add(linkId);
+	}
+
+	void remove(String linkTable, String linkId) {
+		var adding = additions.get(linkTable);
+		if (adding != null) {
+			adding.remove(linkId);
+		}
+		removals.computeIfAbsent(linkTable, __ -> new HashSet<>()).add(linkId);
+	}
+
+	Map<String, Set<String>> getAdditions() {
+		return nonEmpty(additions);
+	}
+
+	Map<String, Set<String>> getRemovals() {
+		return nonEmpty(removals);
+	}
+
+	boolean isEmpty() {
+		return getAdditions().isEmpty() && getRemovals().isEmpty();
+	}
+
+	/**
+	 * dynamo will not add to and delete from the same set in one update expression
+	 */
+	boolean isOverlapping() {
+		var adding = getAdditions().keySet();
+		return getRemovals().keySet().stream().anyMatch(adding::contains);
+	}
+
+	LinkChange additionsOnly() {
+		var toReturn = new LinkChange(table, id);
+		getAdditions().forEach((linkTable, ids) -> ids.forEach(linkId -> toReturn.add(linkTable, linkId)));
+		return toReturn;
+	}
+
+	LinkChange removalsOnly() {
+		var toReturn = new LinkChange(table, id);
+		getRemovals().forEach((linkTable, ids) -> ids.forEach(linkId -> toReturn.remove(linkTable, linkId)));
+		return toReturn;
+	}
+
+	private static Map<String, Set<String>> nonEmpty(Map<String, Set<String>> map) {
+		var toReturn = new HashMap<String, Set<String>>();
+		map.forEach((linkTable, ids) -> {
+			if (!ids.isEmpty()) {
+				toReturn.put(linkTable, ids);
+			}
+		});
+		return toReturn;
+	}
+}
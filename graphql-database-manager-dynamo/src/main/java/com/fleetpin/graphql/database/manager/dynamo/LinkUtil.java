@@ -0,0 +1,205 @@
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import com.fleetpin.graphql.database.manager.util.CompletableFutureUtil;
+import com.google.common.base.Throwables;
+import com.google.common.collect.HashMultimap;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+
+/**
+ * Brings the far side of links into line from a table stream, for databases built with async links where only the
+ * entity the link was made on is written. The stream must include old images so removed links can be seen.
+ */
+public class LinkUtil {
+
+	private static final int MAX_RETRY = 10;
+	private static final int MAX_CONCURRENT_UPDATES = 50;
+	private static final AttributeValue REVISION_INCREMENT = AttributeValue.builder().n("1").build();
+
+	public static CompletableFuture<Void> process(DynamoDbAsyncClient client, String table, Stream<Record> records) {
+		//merged by row so a batch touching the same target many times only updates it once
+		Map<String, Map<String, LinkChange>> changes = new LinkedHashMap<>();
+		records.forEach(record -> {
+			var newImage = record.dynamodb().newImage();
+			var oldImage = record.dynamodb().oldImage();
+			if (newImage == null || !isLinkChange(oldImage, newImage)) {
+				return;
+			}
+			var organisationId = newImage.get("organisationId").s();
+			var id = newImage.get("id").s();
+			var split = id.indexOf(':');
+			var source = id.substring(0, split);
+			var sourceId = id.substring(split + 1);
+
+			var before = getLinks(oldImage);
+			var after = getLinks(newImage);
+			var organisationChanges = changes.computeIfAbsent(organisationId, __ -> new LinkedHashMap<>());
+			for (var link : after.entries()) {
+				if (!before.containsEntry(link.getKey(), link.getValue())) {
+					getChange(organisationChanges, link.getKey(), link.getValue()).add(source, sourceId);
+				}
+			}
+			for (var link : before.entries()) {
+				if (!after.containsEntry(link.getKey(), link.getValue())) {
+					getChange(organisationChanges, link.getKey(), link.getValue()).remove(source, sourceId);
+				}
+			}
+		});
+
+		List<Supplier<CompletableFuture<Void>>> updates = new ArrayList<>();
+		changes.forEach((organisationId, organisationChanges) ->
+			organisationChanges.values().forEach(change -> updates.add(() -> apply(client, table, organisationId, change, 0)))
+		);
+		return CompletableFutureUtil.sequence(updates, MAX_CONCURRENT_UPDATES).thenApply(__ -> null);
+	}
+
+	/**
+	 * only link operations move the link revision, puts replace the item without it and the updates made here leave it
+	 * alone so they do not echo back to the source
+	 */
+	private static boolean isLinkChange(Map<String, AttributeValue> oldImage, Map<String, AttributeValue> newImage) {
+		var after = newImage.get("linkRevision");
+		if (after == null) {
+			return false;
+		}
+		var before = oldImage == null ? null : oldImage.get("linkRevision");
+		return before == null || !before.n().equals(after.n());
+	}
+
+	private static LinkChange getChange(Map<String, LinkChange> changes, String table, String id) {
+		return changes.computeIfAbsent(table + ":" + id, __ -> new LinkChange(table, id));
+	}
+
+	private static HashMultimap<String, String> getLinks(Map<String, AttributeValue> item) {
+		HashMultimap<String, String> toReturn = HashMultimap.create();
+		if (item == null || item.get("links") == null) {
+			return toReturn;
+		}
+		item.get("links").m().forEach((table, ids) -> toReturn.putAll(table, ids.ss()));
+		return toReturn;
+	}
+
+	/**
+	 * Reads the row and writes the full sets that need to change, so replaying the stream or changes that are already
+	 * in place do nothing.
+	 */
+	private static CompletableFuture<Void> apply(DynamoDbAsyncClient client, String table, String organisationId, LinkChange change, int count) {
+		if (count > MAX_RETRY) {
+			throw new RuntimeException("Failed to update links on " + change.getTable() + ":" + change.getId() + " after " + MAX_RETRY + " attempts");
+		}
+		Map<String, AttributeValue> key = new HashMap<>();
+		key.put("organisationId", AttributeValue.builder().s(organisationId).build());
+		key.put("id", AttributeValue.builder().s(change.getTable() + ":" + change.getId()).build());
+
+		return client
+			.getItem(request -> request.tableName(table).key(key).consistentRead(true).projectionExpression("links, revision, organisationIdType"))
+			.thenCompose(response -> {
+				var item = response.item();
+				var current = getLinks(item);
+
+				Map<String, Set<String>> updated = new HashMap<>();
+				change
+					.getAdditions()
+					.forEach((linkTable, ids) -> {
+						for (var id : ids) {
+							if (!current.containsEntry(linkTable, id)) {
+								updated.computeIfAbsent(linkTable, __ -> new HashSet<>(current.get(linkTable))).add(id);
+							}
+						}
+					});
+				change
+					.getRemovals()
+					.forEach((linkTable, ids) -> {
+						for (var id : ids) {
+							if (current.containsEntry(linkTable, id)) {
+								updated.computeIfAbsent(linkTable, __ -> new HashSet<>(current.get(linkTable))).remove(id);
+							}
+						}
+					});
+				if (updated.isEmpty()) {
+					return CompletableFuture.completedFuture(null);
+				}
+
+				Map<String, AttributeValue> values = new HashMap<>();
+				values.put(":revisionIncrement", REVISION_INCREMENT);
+				String condition;
+				var revision = item.get("revision");
+				if (revision == null) {
+					condition = "attribute_not_exists(revision)";
+				} else {
+					values.put(":revision", revision);
+					condition = "revision = :revision";
+				}
+
+				//rows of types that track changes already carry their index keys so only the time has to move
+				String stamp;
+				if (item.get("organisationIdType") == null) {
+					stamp = "";
+				} else {
+					values.put(":updatedAt", AttributeValue.builder().n(Long.toString(Instant.now().toEpochMilli())).build());
+					stamp = ", updatedAt = :updatedAt";
+				}
+
+				Map<String, String> names = new HashMap<>();
+				String expression;
+				if (item.get("links") == null) {
+					//missing from this table or written before links existed
+					Map<String, AttributeValue> links = new HashMap<>();
+					updated.forEach((linkTable, ids) -> links.put(linkTable, toLinkAttribute(ids)));
+					values.put(":val", AttributeValue.builder().m(links).build());
+					expression = "SET links = :val" + stamp + " ADD revision :revisionIncrement";
+				} else {
+					var set = new StringBuilder();
+					int i = 0;
+					for (var entry : updated.entrySet()) {
+						names.put("#table" + i, entry.getKey());
+						values.put(":val" + i, toLinkAttribute(entry.getValue()));
+						set.append(i == 0 ? "SET " : ", ").append("links.#table" + i + " = :val" + i);
+						i++;
+					}
+					expression = set + stamp + " ADD revision :revisionIncrement";
+				}
+
+				return client
+					.updateItem(request -> {
+						request.tableName(table).key(key).conditionExpression(condition).updateExpression(expression).expressionAttributeValues(values);
+						if (!names.isEmpty()) {
+							request.expressionAttributeNames(names);
+						}
+					})
+					.<CompletableFuture<Void>>handle((r, failure) -> {
+						if (failure == null) {
+							return CompletableFuture.completedFuture(null);
+						}
+						if (failure.getCause() instanceof ConditionalCheckFailedException) {
+							//row changed since it was read
+							return apply(client, table, organisationId, change, count + 1);
+						}
+						Throwables.throwIfUnchecked(failure);
+						throw new RuntimeException(failure);
+					})
+					.thenCompose(a -> a);
+			});
+	}
+
+	private static AttributeValue toLinkAttribute(Set<String> ids) {
+		if (ids.isEmpty()) {
+			return AttributeValue.builder().nul(true).build();
+		} else {
+			return AttributeValue.builder().ss(ids).build();
+		}
+	}
+}
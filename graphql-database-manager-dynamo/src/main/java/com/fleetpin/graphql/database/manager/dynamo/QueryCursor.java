@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Where a paged query stopped in each table and organisation partition. Holds the key of the last row the merge used
+ * from every partition, so the next page starts each one exactly there, and the id of the last row returned so a
+ * partition the cursor does not know about can not repeat earlier rows.
+ */
+final class QueryCursor {
+
+	private final String last;
+	private final Map<Map.Entry<String, String>, Position> positions;
+
+	QueryCursor(String last, Map<Map.Entry<String, String>, Position> positions) {
+		this.last = last;
+		this.positions = positions;
+	}
+
+	String getLast() {
+		return last;
+	}
+
+	Position get(String table, String organisationId) {
+		return positions.get(Map.entry(table, organisationId));
+	}
+
+	String encode(ObjectMapper mapper) {
+		var root = mapper.createObjectNode();
+		root.put("last", last);
+		var partitions = root.putArray("partitions");
+		positions.forEach((partition, position) -> {
+			var node = partitions.addObject();
+			node.put("table", partition.getKey());
+			node.put("organisationId", partition.getValue());
+			node.put("done", position.isDone());
+			if (position.getStartKey() != null) {
+				node.put("startOrganisationId", position.getStartKey().get("organisationId").s());
+				node.put("startId", position.getStartKey().get("id").s());
+			}
+		});
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(mapper.writeValueAsBytes(root));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static QueryCursor decode(ObjectMapper mapper, String cursor) {
+		JsonNode root;
+		try {
+			root = mapper.readTree(Base64.getUrlDecoder().decode(cursor));
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid query cursor " + cursor, e);
+		}
+		if (root == null || !root.has("last") || !root.path("partitions").isArray()) {
+			throw new IllegalArgumentException("Invalid query cursor " + cursor);
+		}
+		var positions = new HashMap<Map.Entry<String, String>, Position>();
+		for (var node : root.get("partitions")) {
+			Map<String, AttributeValue> startKey = null;
+			if (node.has("startId")) {
+				startKey = new HashMap<>();
+				startKey.put("organisationId", AttributeValue.builder().s(node.get("startOrganisationId").asText()).build());
+				startKey.put("id", AttributeValue.builder().s(node.get("startId").asText()).build());
+			}
+			positions.put(
+				Map.entry(node.get("table").asText(), node.get("organisationId").asText()),
+				new Position(node.get("done").asBoolean(), startKey)
+			);
+		}
+		return new QueryCursor(root.get("last").asText(), positions);
+	}
+
+	static final class Position {
+
+		private final boolean done;
+		private final Map<String, AttributeValue> startKey;
+
+		Position(boolean done, Map<String, AttributeValue> startKey) {
+			this.done = done;
+			this.startKey = startKey;
+		}
+
+		boolean isDone() {
+			return done;
+		}
+
+		/**
+		 * @return key of the last row used from the partition, null if none were
+		 */
+		Map<String, AttributeValue> getStartKey() {
+			return startKey;
+		}
+	}
+}
@@ -0,0 +1,305 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+/**
+ * Merges the id ordered pages of every table and organisation partition of a query as they arrive. Rows for the same id
+ * are layered as they are found and tombstones dropped, so a limit counts real results and once it is reached every
+ * partition stops paging.
+ */
+final class QueryMerger {
+
+	private final List<String> tables;
+	private final Integer limit;
+	private final boolean descending;
+	private final BiConsumer<String, String> emptyPartition;
+	private final List<Source> sources = new ArrayList<>();
+	private final List<DynamoItem> results = new ArrayList<>();
+	private final CompletableFuture<List<DynamoItem>> future = new CompletableFuture<>();
+	private IdRange range;
+	private Predicate<DynamoItem> filter;
+	private String skipThrough;
+	private DynamoItem last;
+	private boolean limited;
+
+	/**
+	 * @param tables layering order of the tables
+	 * @param limit stop once this many results have been produced, null to read everything
+	 * @param descending partitions are being read in reverse id order
+	 * @param emptyPartition told the table and organisation of any partition that was read to the end without a row
+	 */
+	QueryMerger(List<String> tables, Integer limit, boolean descending, BiConsumer<String, String> emptyPartition) {
+		this.tables = tables;
+		this.limit = limit;
+		this.descending = descending;
+		this.emptyPartition = emptyPartition;
+	}
+
+	/**
+	 * Partitions must be added in the order they should be layered, later ones win for the same table
+	 */
+	Subscriber<QueryResponse> add(String table, String organisationId) {
+		var source = new Source(table, organisationId);
+		sources.add(source);
+		return source;
+	}
+
+	/**
+	 * Adds a partition an earlier page already read to the end, it is only kept so the next cursor still knows it is done
+	 */
+	void addDone(String table, String organisationId) {
+		var source = new Source(table, organisationId);
+		source.done = true;
+		sources.add(source);
+	}
+
+	/**
+	 * Drops rows the key condition could not exclude, they are still read so do not count towards the limit
+	 */
+	void range(IdRange range) {
+		this.range = range;
+	}
+
+	/**
+	 * Drops merged rows that do not match, for partitions that could not filter their rows as they were read
+	 */
+	void filter(Predicate<DynamoItem> filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Drops rows up to and including this id in the order being read, used when resuming from a cursor
+	 */
+	void skipThrough(String id) {
+		this.skipThrough = id;
+	}
+
+	/**
+	 * @return where each partition stopped, null if every partition was read to the end
+	 */
+	synchronized QueryCursor getCursor() {
+		if (!limited || sources.stream().allMatch(source -> source.done && source.buffer.isEmpty())) {
+			return null;
+		}
+		var positions = new HashMap<Map.Entry<String, String>, QueryCursor.Position>();
+		for (var source : sources) {
+			positions.put(Map.entry(source.table, source.organisationId), new QueryCursor.Position(source.done && source.buffer.isEmpty(), source.position));
+		}
+		return new QueryCursor(last.getId(), positions);
+	}
+
+	CompletableFuture<List<DynamoItem>> getFuture() {
+		//nothing may be subscribed if every partition is already done
+		drain();
+		return future;
+	}
+
+	private void drain() {
+		var toRequest = new ArrayList<Subscription>();
+		var toCancel = new ArrayList<Subscription>();
+		synchronized (this) {
+			while (!future.isDone()) {
+				//can only pick the next id once every partition still going has a row to compare
+				boolean waiting = false;
+				DynamoItem next = null;
+				for (var source : sources) {
+					if (source.buffer.isEmpty()) {
+						if (!source.done) {
+							waiting = true;
+							if (source.subscription != null && !source.requested) {
+								source.requested = true;
+								toRequest.add(source.subscription);
+							}
+						}
+					} else if (next == null || order(source.buffer.peek(), next) < 0) {
+						next = source.buffer.peek();
+					}
+				}
+				if (waiting) {
+					break;
+				}
+				if (next == null) {
+					future.complete(results);
+					break;
+				}
+
+				DynamoItem merged = null;
+				for (var source : sources) {
+					var head = source.buffer.peek();
+					if (head != null && compare(head, next) == 0) {
+						source.buffer.poll();
+						source.position = key(head);
+						merged = merged == null ? head : Flattener.merge(tables, merged, head);
+					}
+				}
+				if (merged.isDeleted() || merged.getItem().get("item") == null) {
+					continue;
+				}
+				if (range != null && !range.contains(merged.getId())) {
+					continue;
+				}
+				if (filter != null && !filter.test(merged)) {
+					continue;
+				}
+				if (skipThrough != null && order(merged.getId(), skipThrough) <= 0) {
+					continue;
+				}
+				results.add(merged);
+				last = merged;
+				if (limit != null && results.size() >= limit) {
+					limited = true;
+					future.complete(results);
+					for (var source : sources) {
+						if (!source.done && source.subscription != null) {
+							toCancel.add(source.subscription);
+						}
+					}
+				}
+			}
+		}
+		toCancel.forEach(Subscription::cancel);
+		toRequest.forEach(subscription -> subscription.request(1));
+	}
+
+	private void fail(Throwable t) {
+		var toCancel = new ArrayList<Subscription>();
+		synchronized (this) {
+			if (!future.completeExceptionally(t)) {
+				return;
+			}
+			for (var source : sources) {
+				if (!source.done && source.subscription != null) {
+					toCancel.add(source.subscription);
+				}
+			}
+		}
+		toCancel.forEach(Subscription::cancel);
+	}
+
+	private int order(DynamoItem a, DynamoItem b) {
+		return order(a.getId(), b.getId());
+	}
+
+	private int order(String a, String b) {
+		return descending ? compare(b, a) : compare(a, b);
+	}
+
+	/**
+	 * dynamo orders range keys by their utf-8 bytes which matches code point order rather than String.compareTo
+	 */
+	private static int compare(DynamoItem a, DynamoItem b) {
+		return compare(a.getId(), b.getId());
+	}
+
+	static int compare(String left, String right) {
+		int i = 0;
+		int j = 0;
+		while (i < left.length() && j < right.length()) {
+			int l = left.codePointAt(i);
+			int r = right.codePointAt(j);
+			if (l != r) {
+				return Integer.compare(l, r);
+			}
+			i += Character.charCount(l);
+			j += Character.charCount(r);
+		}
+		return Integer.compare(left.length() - i, right.length() - j);
+	}
+
+	private static Map<String, AttributeValue> key(DynamoItem item) {
+		var row = item.getItem();
+		return Map.of("organisationId", row.get("organisationId"), "id", row.get("id"));
+	}
+
+	private class Source implements Subscriber<QueryResponse> {
+
+		private final String table;
+		private final String organisationId;
+		private final ArrayDeque<DynamoItem> buffer = new ArrayDeque<>();
+		private Map<String, AttributeValue> position;
+		private Subscription subscription;
+		private boolean requested;
+		private boolean done;
+		private boolean found;
+
+		private Source(String table, String organisationId) {
+			this.table = table;
+			this.organisationId = organisationId;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			synchronized (QueryMerger.this) {
+				this.subscription = s;
+			}
+			drain();
+		}
+
+		@Override
+		public void onNext(QueryResponse r) {
+			try {
+				boolean lastPage;
+				synchronized (QueryMerger.this) {
+					requested = false;
+					r.items().forEach(item -> buffer.add(new DynamoItem(table, item)));
+					found |= !buffer.isEmpty();
+					//known to be done without waiting for completion so a cursor ending here is not handed out
+					lastPage = r.lastEvaluatedKey().isEmpty();
+					done |= lastPage;
+				}
+				if (lastPage) {
+					//the paginator only signals completion once more is asked for
+					subscription.request(1);
+				}
+				drain();
+			} catch (Exception e) {
+				fail(e);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			synchronized (QueryMerger.this) {
+				done = true;
+			}
+			fail(t);
+		}
+
+		@Override
+		public void onComplete() {
+			boolean empty;
+			synchronized (QueryMerger.this) {
+				done = true;
+				requested = false;
+				empty = !found;
+			}
+			if (empty) {
+				emptyPartition.accept(table, organisationId);
+			}
+			drain();
+		}
+	}
+}
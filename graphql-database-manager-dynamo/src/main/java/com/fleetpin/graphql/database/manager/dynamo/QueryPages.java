@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+/**
+ * Pages through a query one request at a time like the client paginator, but sends each page through the hedger.
+ */
+final class QueryPages implements Subscription {
+
+	private final DynamoDbAsyncClient client;
+	private final QueryRequest request;
+	private final Hedger hedger;
+	private final Subscriber<? super QueryResponse> subscriber;
+
+	private Map<String, AttributeValue> next;
+	private CompletableFuture<QueryResponse> inFlight;
+	private long demand;
+	private boolean done;
+
+	private QueryPages(DynamoDbAsyncClient client, QueryRequest request, Hedger hedger, Subscriber<? super QueryResponse> subscriber) {
+		this.client = client;
+		this.request = request;
+		this.hedger = hedger;
+		this.subscriber = subscriber;
+		this.next = request.exclusiveStartKey().isEmpty() ? null : request.exclusiveStartKey();
+	}
+
+	static void subscribe(DynamoDbAsyncClient client, QueryRequest request, Hedger hedger, Subscriber<? super QueryResponse> subscriber) {
+		subscriber.onSubscribe(new QueryPages(client, request, hedger, subscriber));
+	}
+
+	@Override
+	public synchronized void request(long n) {
+		if (done) {
+			return;
+		}
+		if (n <= 0) {
+			cancel();
+			subscriber.onError(new IllegalArgumentException("must request a positive number of pages"));
+			return;
+		}
+		demand += n;
+		fetch();
+	}
+
+	@Override
+	public synchronized void cancel() {
+		done = true;
+		if (inFlight != null) {
+			inFlight.cancel(true);
+		}
+	}
+
+	private void fetch() {
+		if (inFlight != null || done || demand == 0) {
+			return;
+		}
+		var page = next == null ? request : request.toBuilder().exclusiveStartKey(next).build();
+		inFlight = hedger.send(() -> client.query(page));
+		inFlight.whenComplete(this::page);
+	}
+
+	private synchronized void page(QueryResponse response, Throwable error) {
+		inFlight = null;
+		if (done) {
+			return;
+		}
+		if (error != null) {
+			done = true;
+			subscriber.onError(error);
+			return;
+		}
+		demand--;
+		next = response.lastEvaluatedKey().isEmpty() ? null : response.lastEvaluatedKey();
+		done = next == null;
+		subscriber.onNext(response);
+		if (next == null) {
+			subscriber.onComplete();
+		} else {
+			fetch();
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import static com.fleetpin.graphql.database.manager.util.TableCoreUtil.table;
+
+import com.fleetpin.graphql.database.manager.Query;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.annotations.QueryPartitions;
+import com.google.common.base.Strings;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks which table and organisation partitions a query has to read. Skips partitions the type declares it never
+ * uses and, when enabled, lower table partitions recently found to be empty. Lower tables are never written through
+ * this driver so only they can be remembered as empty.
+ */
+final class QueryPlanner {
+
+	private final List<String> entityTables;
+	private final String entityTable;
+	private final boolean globalEnabled;
+	private final long emptyPartitionTtl;
+
+	private final ConcurrentHashMap<String, Long> emptyUntil = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Class<? extends Table>, Optional<QueryPartitions>> partitionsCache = new ConcurrentHashMap<>();
+
+	QueryPlanner(List<String> entityTables, boolean globalEnabled, Duration emptyPartitionTtl) {
+		this.entityTables = entityTables;
+		this.entityTable = entityTables.get(entityTables.size() - 1);
+		this.globalEnabled = globalEnabled;
+		this.emptyPartitionTtl = emptyPartitionTtl.toMillis();
+	}
+
+	/**
+	 * @return table and organisation pairs to query, in the order results should be layered
+	 */
+	List<Map.Entry<String, String>> plan(String organisationId, Class<? extends Table> type) {
+		return plan(organisationId, type, true);
+	}
+
+	/**
+	 * @return every table and organisation partition the type can be in, including ones remembered as empty
+	 */
+	List<Map.Entry<String, String>> partitions(String organisationId, Class<? extends Table> type) {
+		return plan(organisationId, type, false);
+	}
+
+	private List<Map.Entry<String, String>> plan(String organisationId, Class<? extends Table> type, boolean skipEmpty) {
+		var partitions = getPartitions(type);
+		boolean global = globalEnabled && partitions.map(QueryPartitions::global).orElse(true);
+		boolean lowerTables = partitions.map(QueryPartitions::lowerTables).orElse(true);
+
+		var now = System.currentTimeMillis();
+		List<Map.Entry<String, String>> toReturn = new ArrayList<>();
+		for (var table : entityTables) {
+			if (!lowerTables && !table.equals(entityTable)) {
+				continue;
+			}
+			if (global && !(skipEmpty && isEmpty(table, "global", type, now))) {
+				toReturn.add(Map.entry(table, "global"));
+			}
+			if (!(skipEmpty && isEmpty(table, organisationId, type, now))) {
+				toReturn.add(Map.entry(table, organisationId));
+			}
+		}
+		return toReturn;
+	}
+
+	void learn(String table, String organisationId, Query<?> query, List<DynamoItem> items) {
+		if (emptyPartitionTtl <= 0 || table.equals(entityTable) || !items.isEmpty()) {
+			return;
+		}
+		//a narrowed query coming back empty says nothing about the rest of the partition
+		if (!Strings.isNullOrEmpty(query.getStartsWith()) || query.getAfter() != null || query.hasRange() || query.getFilter() != null || query.getCursor() != null) {
+			return;
+		}
+		emptyUntil.put(key(table, organisationId, query.getType()), System.currentTimeMillis() + emptyPartitionTtl);
+	}
+
+	private boolean isEmpty(String table, String organisationId, Class<? extends Table> type, long now) {
+		if (emptyPartitionTtl <= 0) {
+			return false;
+		}
+		var key = key(table, organisationId, type);
+		var until = emptyUntil.get(key);
+		if (until == null) {
+			return false;
+		}
+		if (until < now) {
+			emptyUntil.remove(key, until);
+			return false;
+		}
+		return true;
+	}
+
+	private Optional<QueryPartitions> getPartitions(Class<? extends Table> type) {
+		return partitionsCache.computeIfAbsent(
+			type,
+			t -> {
+				Class<?> tmp = t;
+				QueryPartitions partitions = null;
+				while (partitions == null && tmp != null) {
+					partitions = tmp.getDeclaredAnnotation(QueryPartitions.class);
+					tmp = tmp.getSuperclass();
+				}
+				return Optional.ofNullable(partitions);
+			}
+		);
+	}
+
+	private static String key(String table, String organisationId, Class<? extends Table> type) {
+		return table + ":" + organisationId + ":" + table(type);
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+/**
+ * Where a named {@link com.fleetpin.graphql.database.manager.annotations.SecondaryIndex} is stored. The index must be
+ * keyed by organisationId and the attribute, either a local index or a global one with organisationId as its partition
+ * key. Lookups only read the keys from the index and get the entities from the table, so any projection works.
+ */
+public final class SecondaryIndexMapping {
+
+	private final String indexName;
+	private final String attribute;
+
+	public SecondaryIndexMapping(String indexName, String attribute) {
+		this.indexName = indexName;
+		this.attribute = attribute;
+	}
+
+	/**
+	 * Used for names with no mapping configured, both the index and attribute are secondary followed by the name
+	 */
+	static SecondaryIndexMapping defaultMapping(String name) {
+		var attribute = "secondary" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		return new SecondaryIndexMapping(attribute, attribute);
+	}
+
+	public String getIndexName() {
+		return indexName;
+	}
+
+	public String getAttribute() {
+		return attribute;
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.dynamo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Joins identical reads made at the same time by different databases so only one is sent, and packs single keys waiting
+ * within a short window into shared batches. A read only joins one that started after the last write began while no
+ * writes were running, so a database always sees its own writes. While writes are running reads are still batched but
+ * not shared.
+ */
+final class SingleFlight<K, V> {
+
+	private final long window;
+	private final int batchSize;
+	private final Function<List<K>, CompletableFuture<List<V>>> batchLoader;
+
+	private final ConcurrentHashMap<Object, Flight<?>> flights = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+	private final AtomicLong writing = new AtomicLong();
+
+	private List<K> pendingKeys = new ArrayList<>();
+	private List<CompletableFuture<V>> pendingFutures = new ArrayList<>();
+
+	/**
+	 * @param window how long a key waits for others to share its batch
+	 * @param batchSize most keys to send in one batch
+	 * @param batchLoader loads keys returning a value for each in the same order
+	 */
+	SingleFlight(Duration window, int batchSize, Function<List<K>, CompletableFuture<List<V>>> batchLoader) {
+		this.window = window.toNanos();
+		this.batchSize = batchSize;
+		this.batchLoader = batchLoader;
+	}
+
+	/**
+	 * Loads the key as part of a batch, or joins a load of it that is already in flight
+	 */
+	CompletableFuture<V> load(K key) {
+		return join(key, () -> enqueue(key));
+	}
+
+	/**
+	 * Joins the in flight read for the key, or starts one if there is none
+	 */
+	<T> CompletableFuture<T> join(Object key, Supplier<CompletableFuture<T>> load) {
+		var mine = new Flight<T>(generation.get(), writing.get() > 0);
+		var flight = flights.compute(key, (k, existing) -> existing != null && existing.shareable(mine.generation) ? existing : mine);
+		if (flight != mine) {
+			return (CompletableFuture<T>) flight.future;
+		}
+		CompletableFuture<T> loading;
+		try {
+			loading = load.get();
+		} catch (Exception e) {
+			loading = CompletableFuture.failedFuture(e);
+		}
+		loading.whenComplete((result, error) -> {
+			flights.remove(key, mine);
+			if (error == null) {
+				mine.future.complete(result);
+			} else {
+				mine.future.completeExceptionally(error);
+			}
+		});
+		return mine.future;
+	}
+
+	/**
+	 * Runs a write, reads that started before it or while it is running are not shared with any that come after
+	 */
+	<T> CompletableFuture<T> write(Supplier<CompletableFuture<T>> write) {
+		generation.incrementAndGet();
+		writing.incrementAndGet();
+		CompletableFuture<T> future;
+		try {
+			future = write.get();
+		} catch (RuntimeException e) {
+			writing.decrementAndGet();
+			throw e;
+		}
+		//entity futures can complete before the write as a whole so only stop counting it once everything is done
+		return future.whenComplete((result, error) -> writing.decrementAndGet());
+	}
+
+	private CompletableFuture<V> enqueue(K key) {
+		var future = new CompletableFuture<V>();
+		boolean first;
+		boolean full;
+		synchronized (this) {
+			first = pendingKeys.isEmpty();
+			pendingKeys.add(key);
+			pendingFutures.add(future);
+			full = pendingKeys.size() >= batchSize;
+		}
+		if (full) {
+			flush();
+		} else if (first) {
+			CompletableFuture.delayedExecutor(window, TimeUnit.NANOSECONDS).execute(this::flush);
+		}
+		return future;
+	}
+
+	private void flush() {
+		List<K> keys;
+		List<CompletableFuture<V>> futures;
+		synchronized (this) {
+			if (pendingKeys.isEmpty()) {
+				return;
+			}
+			keys = pendingKeys;
+			futures = pendingFutures;
+			pendingKeys = new ArrayList<>();
+			pendingFutures = new ArrayList<>();
+		}
+		CompletableFuture<List<V>> loading;
+		try {
+			loading = batchLoader.apply(keys);
+		} catch (Exception e) {
+			loading = CompletableFuture.failedFuture(e);
+		}
+		loading.whenComplete((results, error) -> {
+			for (int i = 0; i < futures.size(); i++) {
+				if (error == null) {
+					futures.get(i).complete(results.get(i));
+				} else {
+					futures.get(i).completeExceptionally(error);
+				}
+			}
+		});
+	}
+
+	private static final class Flight<T> {
+
+		private final long generation;
+		private final boolean duringWrite;
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+
+		private Flight(long generation, boolean duringWrite) {
+			this.generation = generation;
+			this.duringWrite = duringWrite;
+		}
+
+		private boolean shareable(long current) {
+			return !duringWrite && generation == current;
+		}
+	}
+}
@@ -72,7 +72,8 @@ public class TableUtil {
 
 	static String getSecondaryOrganisation(Table entity) {
 		for (var method : entity.getClass().getMethods()) {
-			if (method.isAnnotationPresent(SecondaryIndex.class)) {
+			var index = method.getAnnotation(SecondaryIndex.class);
+			if (index != null && index.value().isEmpty()) {
 				try {
 					var secondary = method.invoke(entity);
 					if (secondary instanceof Optional) {
@@ -87,6 +88,30 @@ public class TableUtil {
 		return null;
 	}
 
+	/**
+	 * @return value of each named secondary index that is set on the entity
+	 */
+	static Map<String, String> getSecondaryIndexes(Table entity) {
+		Map<String, String> indexes = new HashMap<>();
+		for (var method : entity.getClass().getMethods()) {
+			var index = method.getAnnotation(SecondaryIndex.class);
+			if (index != null && !index.value().isEmpty()) {
+				try {
+					var secondary = method.invoke(entity);
+					if (secondary instanceof Optional) {
+						secondary = ((Optional) secondary).orElse(null);
+					}
+					if (secondary != null) {
+						indexes.put(index.value(), (String) secondary);
+					}
+				} catch (ReflectiveOperationException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		}
+		return indexes;
+	}
+
 	public static Map<String, AttributeValue> toAttributes(ObjectMapper mapper, Object entity) {
 		Map<String, AttributeValue> entries = new HashMap<>();
 		ObjectNode tree = mapper.valueToTree(entity);
@@ -108,14 +133,15 @@ public class TableUtil {
 		var entityItem = entity.getItem();
 		LinkedHashMap<String, String[]> links = mapper.convertValue(entityItem.get("links"), new TypeReference<>() {});
 
+		//always write links, even empty, so link updates can add to it directly
+		entityItem.remove("links");
+		Map<String, AttributeValue> linkMap = new HashMap<>();
 		if (links != null) {
-			entityItem.remove("links");
-			Map<String, AttributeValue> linkMap = new HashMap<>();
 			links.forEach((key, value) -> {
 				linkMap.put(key, AttributeValue.builder().ss(value).build());
 			});
-			entries.put("links", AttributeValue.builder().m(linkMap).build());
 		}
+		entries.put("links", AttributeValue.builder().m(linkMap).build());
 
 		if (entity.isHashed()) {
 			entries.put("hashed", AttributeValue.builder().bool(true).build());
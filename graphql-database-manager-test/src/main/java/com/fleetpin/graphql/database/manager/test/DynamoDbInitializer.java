@@ -45,13 +45,40 @@ final class DynamoDbInitializer {
 						KeySchemaElement.builder().attributeName("organisationId").keyType(KeyType.HASH).build(),
 						KeySchemaElement.builder().attributeName("id").keyType(KeyType.RANGE).build()
 					)
-					.streamSpecification(streamSpecification -> streamSpecification.streamEnabled(true).streamViewType(StreamViewType.NEW_IMAGE))
+					.streamSpecification(streamSpecification -> streamSpecification.streamEnabled(true).streamViewType(StreamViewType.NEW_AND_OLD_IMAGES))
 					.globalSecondaryIndexes(builder ->
 						builder
 							.indexName("secondaryGlobal")
 							.provisionedThroughput(p -> p.readCapacityUnits(10L).writeCapacityUnits(10L))
 							.projection(b -> b.projectionType(ProjectionType.ALL))
-							.keySchema(KeySchemaElement.builder().attributeName("secondaryGlobal").keyType(KeyType.HASH).build())
+							.keySchema(KeySchemaElement.builder().attributeName("secondaryGlobal").keyType(KeyType.HASH).build()),
+						builder ->
+							builder
+								.indexName("byReference")
+								.provisionedThroughput(p -> p.readCapacityUnits(10L).writeCapacityUnits(10L))
+								.projection(b -> b.projectionType(ProjectionType.ALL))
+								.keySchema(
+									KeySchemaElement.builder().attributeName("organisationId").keyType(KeyType.HASH).build(),
+									KeySchemaElement.builder().attributeName("reference").keyType(KeyType.RANGE).build()
+								),
+						builder ->
+							builder
+								.indexName("bySerial")
+								.provisionedThroughput(p -> p.readCapacityUnits(10L).writeCapacityUnits(10L))
+								.projection(b -> b.projectionType(ProjectionType.KEYS_ONLY))
+								.keySchema(
+									KeySchemaElement.builder().attributeName("organisationId").keyType(KeyType.HASH).build(),
+									KeySchemaElement.builder().attributeName("serial").keyType(KeyType.RANGE).build()
+								),
+						builder ->
+							builder
+								.indexName("updatedAt")
+								.provisionedThroughput(p -> p.readCapacityUnits(10L).writeCapacityUnits(10L))
+								.projection(b -> b.projectionType(ProjectionType.KEYS_ONLY))
+								.keySchema(
+									KeySchemaElement.builder().attributeName("organisationIdType").keyType(KeyType.HASH).build(),
+									KeySchemaElement.builder().attributeName("updatedAt").keyType(KeyType.RANGE).build()
+								)
 					)
 					.localSecondaryIndexes(builder ->
 						builder
@@ -60,13 +87,26 @@ final class DynamoDbInitializer {
 							.keySchema(
 								KeySchemaElement.builder().attributeName("organisationId").keyType(KeyType.HASH).build(),
 								KeySchemaElement.builder().attributeName("secondaryOrganisation").keyType(KeyType.RANGE).build()
-							)
+							),
+						builder ->
+							builder
+								.indexName("secondaryCode")
+								.projection(b -> b.projectionType(ProjectionType.KEYS_ONLY))
+								.keySchema(
+									KeySchemaElement.builder().attributeName("organisationId").keyType(KeyType.HASH).build(),
+									KeySchemaElement.builder().attributeName("secondaryCode").keyType(KeyType.RANGE).build()
+								)
 					)
 					.attributeDefinitions(
 						AttributeDefinition.builder().attributeName("organisationId").attributeType(ScalarAttributeType.S).build(),
 						AttributeDefinition.builder().attributeName("id").attributeType(ScalarAttributeType.S).build(),
 						AttributeDefinition.builder().attributeName("secondaryGlobal").attributeType(ScalarAttributeType.S).build(),
-						AttributeDefinition.builder().attributeName("secondaryOrganisation").attributeType(ScalarAttributeType.S).build()
+						AttributeDefinition.builder().attributeName("secondaryOrganisation").attributeType(ScalarAttributeType.S).build(),
+						AttributeDefinition.builder().attributeName("secondaryCode").attributeType(ScalarAttributeType.S).build(),
+						AttributeDefinition.builder().attributeName("reference").attributeType(ScalarAttributeType.S).build(),
+						AttributeDefinition.builder().attributeName("serial").attributeType(ScalarAttributeType.S).build(),
+						AttributeDefinition.builder().attributeName("organisationIdType").attributeType(ScalarAttributeType.S).build(),
+						AttributeDefinition.builder().attributeName("updatedAt").attributeType(ScalarAttributeType.N).build()
 					)
 					.provisionedThroughput(p -> p.readCapacityUnits(10L).writeCapacityUnits(10L).build())
 			)
@@ -162,7 +202,8 @@ final class DynamoDbInitializer {
 		String historyTable,
 		boolean globalEnabled,
 		boolean hashed,
-		String classpath
+		String classpath,
+		boolean asyncLinks
 	) {
 		return DynamoDbManager
 			.builder()
@@ -172,6 +213,7 @@ final class DynamoDbInitializer {
 			.global(globalEnabled)
 			.hash(hashed)
 			.classPath(classpath)
+			.asyncLinks(asyncLinks)
 			.build();
 	}
 	//    static Database getInMemoryDatabase(
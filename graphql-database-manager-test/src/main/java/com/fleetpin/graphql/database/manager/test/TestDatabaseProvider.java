@@ -66,16 +66,20 @@ public final class TestDatabaseProvider implements ArgumentsProvider {
 			.findFirst()
 			.orElse(false);
 
+		final var withLinks = Arrays.stream(testMethod.getParameters()).anyMatch(parameter -> parameter.getType().isAssignableFrom(LinkProcessor.class));
+
 		final var argumentsList = Arrays
 			.stream(testMethod.getParameters())
 			.map(parameter -> {
 				try {
 					if (parameter.getType().isAssignableFrom(DynamoDbManager.class)) {
-						return createDynamoDbManager(client, streamClient, parameter, withHistory, hashed, classPath);
+						return createDynamoDbManager(client, streamClient, parameter, withHistory, withLinks, hashed, classPath);
 					} else if (parameter.getType().isAssignableFrom(HistoryProcessor.class)) {
 						return new HistoryProcessor(client, streamClient, parameter, organisationId);
+					} else if (parameter.getType().isAssignableFrom(LinkProcessor.class)) {
+						return new LinkProcessor(client, streamClient, parameter);
 					} else {
-						return createDatabase(client, streamClient, parameter, organisationId, withHistory, hashed, classPath);
+						return createDatabase(client, streamClient, parameter, organisationId, withHistory, withLinks, hashed, classPath);
 					}
 				} catch (final Exception e) {
 					e.printStackTrace();
@@ -100,13 +104,14 @@ public final class TestDatabaseProvider implements ArgumentsProvider {
 		final AnnotatedElement parameter,
 		final String organisationId,
 		final boolean withHistory,
+		final boolean withLinks,
 		final boolean hashed,
 		final String classPath
 	) throws ExecutionException, InterruptedException {
 		final var databaseOrganisation = parameter.getAnnotation(DatabaseOrganisation.class);
 		final var correctOrganisationId = databaseOrganisation != null ? databaseOrganisation.value() : organisationId;
 
-		final var dynamoDbManager = createDynamoDbManager(client, streamClient, parameter, withHistory, hashed, classPath);
+		final var dynamoDbManager = createDynamoDbManager(client, streamClient, parameter, withHistory, withLinks, hashed, classPath);
 
 		return getEmbeddedDatabase(dynamoDbManager, correctOrganisationId, finished);
 	}
@@ -116,6 +121,7 @@ public final class TestDatabaseProvider implements ArgumentsProvider {
 		final DynamoDbStreamsAsyncClient streamClient,
 		final AnnotatedElement parameter,
 		final boolean withHistory,
+		final boolean withLinks,
 		final boolean hashed,
 		final String classPath
 	) throws ExecutionException, InterruptedException {
@@ -141,7 +147,7 @@ public final class TestDatabaseProvider implements ArgumentsProvider {
 			globalEnabled = globalEnabledAnnotation.value();
 		}
 
-		return getDatabaseManager(client, tables, historyTable, globalEnabled, hashed, classPath);
+		return getDatabaseManager(client, tables, historyTable, globalEnabled, hashed, classPath, withLinks);
 	}
 
 	private Arguments gatherArguments(final List<Object> argumentsList) {
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbAsyncLinkTest {
+
+	@TestDatabase
+	void testLink(final Database db, final Database before, final Database after, final LinkProcessor linkProcessor)
+		throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+		var frank = db.put(new SimpleTable("frank")).get();
+		var bob = db.put(new AnotherTable("bob")).get();
+
+		garry = db.link(garry, AnotherTable.class, bob.getId()).get();
+		db.link(frank, AnotherTable.class, bob.getId()).get();
+		Assertions.assertEquals(2, garry.getRevision());
+
+		//only the entity the link was made on has been written
+		var bobBefore = before.get(AnotherTable.class, bob.getId()).get();
+		Assertions.assertEquals(1, bobBefore.getRevision());
+		Assertions.assertTrue(before.getLinks(bobBefore, SimpleTable.class).get().isEmpty());
+		Assertions.assertEquals("bob", before.getLink(before.get(SimpleTable.class, garry.getId()).get(), AnotherTable.class).get().getName());
+
+		linkProcessor.process();
+		//replaying the stream changes nothing
+		linkProcessor.process();
+
+		var bobAfter = after.get(AnotherTable.class, bob.getId()).get();
+		Assertions.assertEquals(2, bobAfter.getRevision());
+		var bobLinks = after.getLinks(bobAfter, SimpleTable.class).get();
+		bobLinks.sort(Comparator.comparing(SimpleTable::getName));
+		Assertions.assertEquals(2, bobLinks.size());
+		Assertions.assertEquals("frank", bobLinks.get(0).getName());
+		Assertions.assertEquals("garry", bobLinks.get(1).getName());
+
+		//the reverse updates do not echo back onto the source
+		Assertions.assertEquals(2, after.get(SimpleTable.class, garry.getId()).get().getRevision());
+	}
+
+	@TestDatabase
+	void testUnlink(final Database db, final Database check, final LinkProcessor linkProcessor) throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+		var bob = db.put(new AnotherTable("bob")).get();
+		var john = db.put(new AnotherTable("john")).get();
+
+		garry = db.links(garry, AnotherTable.class, Arrays.asList(bob.getId(), john.getId())).get();
+		garry = db.unlink(garry, AnotherTable.class, bob.getId()).get();
+
+		linkProcessor.process();
+
+		bob = check.get(AnotherTable.class, bob.getId()).get();
+		john = check.get(AnotherTable.class, john.getId()).get();
+		Assertions.assertNull(check.getLink(bob, SimpleTable.class).get());
+		Assertions.assertEquals("garry", check.getLink(john, SimpleTable.class).get().getName());
+	}
+
+	@TestDatabase
+	void testUnlinkNotHeld(final Database db, final Database check, final LinkProcessor linkProcessor) throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+		var bob = db.put(new AnotherTable("bob")).get();
+
+		//bob links back to garry but the stream has not added the link to garry yet
+		db.link(bob, SimpleTable.class, garry.getId()).get();
+		garry = db.unlink(garry, AnotherTable.class, bob.getId()).get();
+
+		//garry did not change so there is nothing on the stream to clear bob with
+		bob = check.get(AnotherTable.class, bob.getId()).get();
+		Assertions.assertNull(check.getLink(bob, SimpleTable.class).get());
+	}
+
+	static class SimpleTable extends Table {
+
+		private String name;
+
+		public SimpleTable() {}
+
+		public SimpleTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	static class AnotherTable extends Table {
+
+		private String name;
+
+		public AnotherTable() {}
+
+		public AnotherTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
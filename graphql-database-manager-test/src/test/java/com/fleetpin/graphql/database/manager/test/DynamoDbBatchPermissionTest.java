@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.access.ForbiddenWriteException;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbBatchPermissionTest {
+
+	@TestDatabase
+	void testOneCallPerDispatch(final DynamoDbManager dynamoDbManager) throws InterruptedException, ExecutionException {
+		var calls = Collections.synchronizedList(new ArrayList<List<Table>>());
+		final var db = dynamoDbManager.getDatabaseWithBatchPermission(
+			"test",
+			entities -> {
+				calls.add(entities);
+				return CompletableFuture.completedFuture(
+					entities.stream().map(entity -> !((SimpleTable) entity).getName().equals("bad")).collect(Collectors.toList())
+				);
+			}
+		);
+
+		//queue everything before starting so it all lands in the same dispatch
+		var futures = new ArrayList<CompletableFuture<SimpleTable>>();
+		for (int i = 0; i < 20; i++) {
+			futures.add(db.put(new SimpleTable("name" + i)));
+		}
+		var bad = db.put(new SimpleTable("bad"));
+		db.start(new CompletableFuture<>());
+
+		for (var future : futures) {
+			Assertions.assertEquals(1, future.get().getRevision());
+		}
+		var failure = Assertions.assertThrows(ExecutionException.class, bad::get);
+		Assertions.assertTrue(failure.getCause() instanceof ForbiddenWriteException);
+
+		Assertions.assertEquals(1, calls.size());
+		Assertions.assertEquals(21, calls.get(0).size());
+	}
+
+	@TestDatabase
+	void testRemembersResults(final DynamoDbManager dynamoDbManager) throws InterruptedException, ExecutionException {
+		var checked = Collections.synchronizedList(new ArrayList<Table>());
+		final var db = dynamoDbManager.getDatabaseWithBatchPermission(
+			"test",
+			entities -> {
+				checked.addAll(entities);
+				return CompletableFuture.completedFuture(entities.stream().map(__ -> true).collect(Collectors.toList()));
+			}
+		);
+		db.start(new CompletableFuture<>());
+
+		var garry = db.put(new SimpleTable("garry")).get();
+		var bob = db.put(new AnotherTable("bob")).get();
+		checked.clear();
+
+		//delete checks the entity again before removing its links, same table, id and revision is only checked once
+		db.delete(bob, true).get();
+		Assertions.assertEquals(1, checked.size());
+
+		//each new revision is checked again
+		garry = db.put(garry).get();
+		db.put(garry).get();
+		Assertions.assertEquals(3, checked.size());
+	}
+
+	static class SimpleTable extends Table {
+
+		private String name;
+
+		public SimpleTable() {}
+
+		public SimpleTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	static class AnotherTable extends Table {
+
+		private String name;
+
+		public AnotherTable() {}
+
+		public AnotherTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.annotations.TrackChanges;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import com.fleetpin.graphql.database.manager.util.BackupItem;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+final class DynamoDbChangedSinceTest {
+
+	@TestDatabase
+	void testChangedSince(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		var start = Instant.now();
+		var kept = dbProd.put(new Device("kept", "old")).get();
+		var removed = dbProd.put(new Device("removed", "old")).get();
+		db.put(new Device("added", "old")).get();
+
+		var changes = db.queryChangedSince(Device.class, start).get();
+		Assertions.assertEquals(List.of("added", "kept", "removed"), ids(changes.getItems()));
+		Assertions.assertTrue(changes.getDeleted().isEmpty());
+
+		Thread.sleep(10);
+		var since = Instant.now();
+		Thread.sleep(10);
+
+		kept.setName("new");
+		db.put(kept).get();
+		db.delete(db.get(Device.class, "removed").get(), false).get();
+		var added = db.get(Device.class, "added").get();
+		db.delete(added, false).get();
+
+		changes = db.queryChangedSince(Device.class, since).get();
+		Assertions.assertEquals(List.of("kept"), ids(changes.getItems()));
+		Assertions.assertEquals("new", changes.getItems().get(0).getName());
+		Assertions.assertEquals(List.of("added", "removed"), changes.getDeleted().stream().sorted().collect(Collectors.toList()));
+
+		//the token looks back a little so the latest changes are seen again
+		changes = db.queryChangedSince(Device.class, changes.getToken()).get();
+		Assertions.assertEquals(List.of("kept"), ids(changes.getItems()));
+
+		//a deleted id can be used again
+		db.put(new Device("added", "again")).get();
+		changes = db.queryChangedSince(Device.class, since).get();
+		Assertions.assertEquals(List.of("added", "kept"), ids(changes.getItems()));
+		Assertions.assertEquals(List.of("removed"), changes.getDeleted());
+		Assertions.assertEquals(1, db.query(Device.class).get().stream().filter(device -> device.getId().equals("added")).count());
+	}
+
+	@TestDatabase
+	void testChangedSincePages(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		var start = Instant.now();
+		for (int i = 0; i < 3; i++) {
+			dbProd.put(new Device("prod" + i, "old")).get();
+			db.put(new Device("stage" + i, "old")).get();
+		}
+
+		var seen = new ArrayList<String>();
+		var changes = db.queryChangedSince(Device.class, start, 2).get();
+		Assertions.assertTrue(changes.hasMore());
+		seen.addAll(ids(changes.getItems()));
+		while (changes.hasMore()) {
+			Assertions.assertEquals(2, changes.getItems().size());
+			changes = db.queryChangedSince(Device.class, changes.getToken(), 2).get();
+			seen.addAll(ids(changes.getItems()));
+		}
+		Assertions.assertEquals(List.of("prod0", "prod1", "prod2", "stage0", "stage1", "stage2"), seen.stream().sorted().collect(Collectors.toList()));
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> db.queryChangedSince(Device.class, start, 0));
+	}
+
+	@TestDatabase
+	void testLinksAreChanges(final Database db) throws InterruptedException, ExecutionException {
+		var device = db.put(new Device("device", "old")).get();
+		var site = db.put(new Site("site")).get();
+
+		Thread.sleep(10);
+		var since = Instant.now();
+		Thread.sleep(10);
+
+		db.link(device, Site.class, site.getId()).get();
+		Assertions.assertEquals(List.of("device"), ids(db.queryChangedSince(Device.class, since).get().getItems()));
+		//the far side of the link changed as well
+		Assertions.assertEquals(List.of("site"), sites(db.queryChangedSince(Site.class, since).get().getItems()));
+
+		Thread.sleep(10);
+		since = Instant.now();
+		Thread.sleep(10);
+
+		db.deleteLinks(db.get(Device.class, "device").get()).get();
+		Assertions.assertEquals(List.of("device"), ids(db.queryChangedSince(Device.class, since).get().getItems()));
+		Assertions.assertEquals(List.of("site"), sites(db.queryChangedSince(Site.class, since).get().getItems()));
+	}
+
+	@TestDatabase
+	void testTombstonesExpire(final DynamoDbManager manager) throws InterruptedException, ExecutionException {
+		var db = manager.getDatabase("organisation");
+		db.start(new CompletableFuture<>());
+		db.put(new Device("kept", "old")).get();
+		var removed = db.put(new Device("removed", "old")).get();
+		db.delete(removed, false).get();
+
+		var key = Map.of(
+			"organisationId",
+			AttributeValue.builder().s("organisation").build(),
+			"id",
+			AttributeValue.builder().s("devices:removed").build()
+		);
+		var tombstone = manager.getDynamoDbAsyncClient().getItem(request -> request.tableName("table").key(key).consistentRead(true)).get().item();
+		var expires = Instant.ofEpochSecond(Long.parseLong(tombstone.get("ttl").n()));
+		Assertions.assertTrue(expires.isAfter(Instant.now().plus(Duration.ofDays(29))));
+
+		//the delete is still there for syncs but not brought back by a restore
+		Assertions.assertEquals(List.of("removed"), db.queryChangedSince(Device.class, Instant.EPOCH).get().getDeleted());
+		var backup = db.takeBackup("organisation").get().stream().map(BackupItem::getId).collect(Collectors.toList());
+		Assertions.assertEquals(List.of("devices:kept"), backup);
+	}
+
+	@TestDatabase
+	void testChangedSinceRejects(final Database db) {
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> db.queryChangedSince(Untracked.class, Instant.now()));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> db.queryChangedSince(Device.class, "not a token"));
+	}
+
+	private static List<String> ids(List<Device> devices) {
+		return devices.stream().map(Device::getId).sorted().collect(Collectors.toList());
+	}
+
+	private static List<String> sites(List<Site> sites) {
+		return sites.stream().map(Site::getId).sorted().collect(Collectors.toList());
+	}
+
+	@TrackChanges
+	static class Device extends Table {
+
+		private String name;
+
+		public Device() {}
+
+		public Device(String id, String name) {
+			setId(id);
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@TrackChanges
+	static class Site extends Table {
+
+		public Site() {}
+
+		public Site(String id) {
+			setId(id);
+		}
+	}
+
+	static class Untracked extends Table {}
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.test;
+
+import static com.fleetpin.graphql.database.manager.QueryFilter.equal;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.annotations.QueryPartitions;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbCountTest {
+
+	@TestDatabase
+	void testCount(final Database db) throws InterruptedException, ExecutionException {
+		for (int i = 0; i < 20; i++) {
+			db.put(new Vehicle(String.format("%02d", i), i % 2 == 0 ? "car" : "van")).get();
+		}
+		db.put(new Trailer("01")).get();
+		db.delete(db.get(Vehicle.class, "03").get(), false).get();
+
+		Assertions.assertEquals(19, db.count(Vehicle.class, builder -> builder).get());
+		Assertions.assertEquals(9, db.count(Vehicle.class, builder -> builder.startsWith("0")).get());
+		Assertions.assertEquals(10, db.count(Vehicle.class, builder -> builder.filter(equal("kind", "car"))).get());
+		Assertions.assertEquals(5, db.count(Vehicle.class, builder -> builder.between("05", "09")).get());
+		Assertions.assertEquals(3, db.count(Vehicle.class, builder -> builder.greaterThan("16")).get());
+		Assertions.assertEquals(19, db.count(Vehicle.class, builder -> builder.limit(2)).get());
+		Assertions.assertEquals(1, db.count(Trailer.class, builder -> builder).get());
+	}
+
+	@TestDatabase
+	void testCountSinglePartition(final Database db) throws InterruptedException, ExecutionException {
+		for (int i = 0; i < 10; i++) {
+			db.put(new Depot(String.format("%02d", i), i < 3 ? "north" : "south")).get();
+		}
+		db.delete(db.get(Depot.class, "05").get(), false).get();
+
+		Assertions.assertEquals(9, db.count(Depot.class, builder -> builder).get());
+		Assertions.assertEquals(6, db.count(Depot.class, builder -> builder.filter(equal("kind", "south"))).get());
+		Assertions.assertEquals(4, db.count(Depot.class, builder -> builder.after("05")).get());
+	}
+
+	@TestDatabase
+	void testCountOverLayers(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		for (int i = 0; i < 5; i++) {
+			dbProd.put(new Vehicle(String.format("%02d", i), "car")).get();
+		}
+		db.delete(db.get(Vehicle.class, "01").get(), false).get();
+		var changed = db.get(Vehicle.class, "02").get();
+		changed.kind = "van";
+		db.put(changed).get();
+		db.put(new Vehicle("10", "van")).get();
+		db.putGlobal(new Vehicle("20", "car")).get();
+
+		Assertions.assertEquals(6, db.count(Vehicle.class, builder -> builder).get());
+		Assertions.assertEquals(4, db.count(Vehicle.class, builder -> builder.filter(equal("kind", "car"))).get());
+		Assertions.assertEquals(5, dbProd.count(Vehicle.class, builder -> builder).get());
+	}
+
+	@TestDatabase
+	void testExists(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		dbProd.put(new Vehicle("a", "car")).get();
+		dbProd.put(new Vehicle("b", "car")).get();
+		db.put(new Vehicle("c", "van")).get();
+		db.delete(db.get(Vehicle.class, "b").get(), false).get();
+
+		Assertions.assertTrue(db.exists(Vehicle.class, "a").get());
+		Assertions.assertFalse(db.exists(Vehicle.class, "b").get());
+		Assertions.assertTrue(dbProd.exists(Vehicle.class, "b").get());
+		Assertions.assertTrue(db.exists(Vehicle.class, "c").get());
+		Assertions.assertFalse(dbProd.exists(Vehicle.class, "c").get());
+		Assertions.assertFalse(db.exists(Vehicle.class, "d").get());
+		Assertions.assertFalse(db.exists(Vehicle.class, null).get());
+		Assertions.assertFalse(db.exists(Trailer.class, "a").get());
+
+		db.put(new Vehicle("d", "car")).get();
+		Assertions.assertTrue(db.exists(Vehicle.class, "d").get());
+	}
+
+	static class Vehicle extends Table {
+
+		private String kind;
+
+		public Vehicle() {}
+
+		public Vehicle(String id, String kind) {
+			setId(id);
+			this.kind = kind;
+		}
+
+		public String getKind() {
+			return kind;
+		}
+	}
+
+	static class Trailer extends Table {
+
+		public Trailer() {}
+
+		public Trailer(String id) {
+			setId(id);
+		}
+	}
+
+	@QueryPartitions(global = false, lowerTables = false)
+	static class Depot extends Table {
+
+		private String kind;
+
+		public Depot() {}
+
+		public Depot(String id, String kind) {
+			setId(id);
+			this.kind = kind;
+		}
+
+		public String getKind() {
+			return kind;
+		}
+	}
+}
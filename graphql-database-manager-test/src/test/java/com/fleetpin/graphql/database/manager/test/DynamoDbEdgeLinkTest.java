@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.annotations.EdgeLinks;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbEdgeLinkTest {
+
+	@TestDatabase
+	void testLinkMany(final Database db) throws InterruptedException, ExecutionException {
+		var group = db.put(new Group("admins")).get();
+
+		var ids = new ArrayList<String>();
+		for (int i = 0; i < 120; i++) {
+			ids.add(db.put(new Member("member" + i)).get().getId());
+		}
+
+		group = db.links(group, Member.class, ids).get();
+		//edges are separate rows so the group itself is untouched
+		Assertions.assertEquals(1, group.getRevision());
+		Assertions.assertTrue(db.getLinkIds(group, Member.class).isEmpty());
+
+		group = db.get(Group.class, group.getId()).get();
+		Assertions.assertEquals(120, db.getLinks(group, Member.class).get().size());
+
+		var member = db.get(Member.class, ids.get(5)).get();
+		Assertions.assertEquals("admins", db.getLink(member, Group.class).get().getName());
+
+		group = db.links(group, Member.class, ids.subList(0, 10)).get();
+		Assertions.assertEquals(10, db.getLinks(group, Member.class).get().size());
+
+		member = db.get(Member.class, ids.get(50)).get();
+		Assertions.assertNull(db.getLink(member, Group.class).get());
+	}
+
+	@TestDatabase
+	void testLinkFromUndeclaredSide(final Database db) throws InterruptedException, ExecutionException {
+		var group = db.put(new Group("admins")).get();
+		var garry = db.put(new Member("garry")).get();
+		var bob = db.put(new Member("bob")).get();
+
+		db.link(garry, Group.class, group.getId()).get();
+		db.link(bob, Group.class, group.getId()).get();
+
+		var members = db.getLinks(group, Member.class).get();
+		members.sort(Comparator.comparing(Member::getName));
+		Assertions.assertEquals(2, members.size());
+		Assertions.assertEquals("bob", members.get(0).getName());
+		Assertions.assertEquals("garry", members.get(1).getName());
+	}
+
+	@TestDatabase
+	void testUnlink(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		var group = dbProd.put(new Group("admins")).get();
+		var garry = dbProd.put(new Member("garry")).get();
+		var bob = dbProd.put(new Member("bob")).get();
+
+		dbProd.links(group, Member.class, Arrays.asList(garry.getId(), bob.getId())).get();
+
+		//edge only exists in the lower table so has to be hidden rather than deleted
+		db.unlink(group, Member.class, garry.getId()).get();
+
+		var members = db.getLinks(group, Member.class).get();
+		Assertions.assertEquals(1, members.size());
+		Assertions.assertEquals("bob", members.get(0).getName());
+		Assertions.assertNull(db.getLink(garry, Group.class).get());
+
+		Assertions.assertEquals(2, dbProd.getLinks(group, Member.class).get().size());
+	}
+
+	@TestDatabase
+	void testDeleteLinks(final Database db) throws InterruptedException, ExecutionException {
+		var group = db.put(new Group("admins")).get();
+		var garry = db.put(new Member("garry")).get();
+		var admin = db.put(new Admin("john")).get();
+
+		db.link(group, Member.class, garry.getId()).get();
+		db.link(group, Admin.class, admin.getId()).get();
+
+		group = db.get(Group.class, group.getId()).get();
+		db.delete(group, true).get();
+
+		Assertions.assertNull(db.getLink(garry, Group.class).get());
+		Assertions.assertNull(db.getLink(admin, Group.class).get());
+	}
+
+	@TestDatabase
+	void testDeleteLinksFromUndeclaredSide(final Database db) throws InterruptedException, ExecutionException {
+		var group = db.put(new Group("admins")).get();
+		var garry = db.put(new Member("garry")).get();
+
+		db.link(group, Member.class, garry.getId()).get();
+
+		//no class path so the member side has to look for edges without knowing group declares them
+		garry = db.get(Member.class, garry.getId()).get();
+		db.delete(garry, true).get();
+
+		Assertions.assertTrue(db.getLinks(group, Member.class).get().isEmpty());
+	}
+
+	@TestDatabase
+	void testDeleteLinksWithoutEdges(final DynamoDbManager manager) throws InterruptedException, ExecutionException {
+		var client = new InterceptingDynamoDbClient(manager.getDynamoDbAsyncClient());
+		var db = DynamoDbManager
+			.builder()
+			.tables("table")
+			.dynamoDbAsyncClient(client)
+			.classPath("com.fleetpin.graphql.database.manager.test")
+			.build()
+			.getDatabase("organisation");
+		var finished = new CompletableFuture<>();
+		db.start(finished);
+
+		var admin = db.put(new Admin("john")).get();
+		var queries = client.getQueries();
+		//no type on the class path declares edges to admins so there are no edge rows to look for
+		db.deleteLinks(admin).get();
+		Assertions.assertEquals(queries, client.getQueries());
+		finished.complete(null);
+	}
+
+	@EdgeLinks(Member.class)
+	static class Group extends Table {
+
+		private String name;
+
+		public Group() {}
+
+		public Group(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	static class Member extends Table {
+
+		private String name;
+
+		public Member() {}
+
+		public Member(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	static class Admin extends Table {
+
+		private String name;
+
+		public Admin() {}
+
+		public Admin(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
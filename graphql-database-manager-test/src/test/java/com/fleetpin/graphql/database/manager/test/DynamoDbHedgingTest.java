@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbHedgingTest {
+
+	@TestDatabase
+	void testHedgedReads(final DynamoDbManager manager, final Database db) throws InterruptedException, ExecutionException {
+		var hedged = DynamoDbManager
+			.builder()
+			.tables("table")
+			.dynamoDbAsyncClient(manager.getDynamoDbAsyncClient())
+			.hedging(0.5, 0.05)
+			.build();
+
+		var garry = db.put(new SimpleTable("garry")).get();
+		db.put(new SimpleTable("frank")).get();
+
+		for (int i = 0; i < 300; i++) {
+			var read = hedged.getDatabase("organisation");
+			read.start(new CompletableFuture<>());
+			Assertions.assertEquals("garry", read.get(SimpleTable.class, garry.getId()).get().getName());
+			Assertions.assertEquals(2, read.query(SimpleTable.class).get().size());
+		}
+
+		var metrics = hedged.getHedgingMetrics();
+		Assertions.assertTrue(metrics.getRequests() >= 600);
+		Assertions.assertTrue(metrics.getHedges() <= 0.05 * metrics.getRequests() + 1);
+		Assertions.assertTrue(metrics.getHedgeWins() <= metrics.getHedges());
+	}
+
+	@TestDatabase
+	void testSlowReadIsHedged(final DynamoDbManager manager, final Database db) throws InterruptedException, ExecutionException {
+		var client = new InterceptingDynamoDbClient(manager.getDynamoDbAsyncClient());
+		var hedged = DynamoDbManager.builder().tables("table").dynamoDbAsyncClient(client).hedging(0.99, 0.5).build();
+		var finished = new CompletableFuture<>();
+
+		var garry = db.put(new SimpleTable("garry")).get();
+
+		//enough normal reads for the hedger to learn how long one takes
+		for (int i = 0; i < 150; i++) {
+			var read = hedged.getDatabase("organisation");
+			read.start(finished);
+			Assertions.assertEquals("garry", read.get(SimpleTable.class, garry.getId()).get().getName());
+		}
+
+		var metrics = hedged.getHedgingMetrics();
+		var hedges = metrics.getHedges();
+		var wins = metrics.getHedgeWins();
+		var gets = client.getBatchGets();
+
+		client.delayNextBatchGet(Duration.ofSeconds(10));
+		var read = hedged.getDatabase("organisation");
+		read.start(finished);
+		var start = System.nanoTime();
+		Assertions.assertEquals("garry", read.get(SimpleTable.class, garry.getId()).get().getName());
+		Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+		Assertions.assertEquals(gets + 2, client.getBatchGets());
+		Assertions.assertEquals(hedges + 1, metrics.getHedges());
+		Assertions.assertEquals(wins + 1, metrics.getHedgeWins());
+		finished.complete(null);
+	}
+
+	static class SimpleTable extends Table {
+
+		private String name;
+
+		public SimpleTable() {}
+
+		public SimpleTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
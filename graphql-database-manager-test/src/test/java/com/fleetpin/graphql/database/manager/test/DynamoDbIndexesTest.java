@@ -23,7 +23,10 @@ import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
 import com.fleetpin.graphql.database.manager.test.annotations.DatabaseOrganisation;
 import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
 import com.fleetpin.graphql.database.manager.util.BackupItem;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -141,6 +144,90 @@ final class DynamoDbIndexesTest {
 		Assertions.assertTrue(t.getCause().getMessage().contains("expected single linkage"));
 	}
 
+	@TestDatabase
+	void testLookupsCached(final DynamoDbManager manager) throws InterruptedException, ExecutionException {
+		var client = new InterceptingDynamoDbClient(manager.getDynamoDbAsyncClient());
+		var db = DynamoDbManager.builder().tables("table").dynamoDbAsyncClient(client).build().getDatabase("organisation");
+		db.start(new CompletableFuture<>());
+		db.put(new SimpleTable("garry", "john")).get();
+
+		var queries = client.getQueries();
+		var secondary = db.querySecondary(SimpleTable.class, "garry");
+		Assertions.assertSame(secondary.get().get(0), db.querySecondary(SimpleTable.class, "garry").get().get(0));
+		//the second lookup was answered without reading the index again
+		Assertions.assertEquals(queries + 1, client.getQueries());
+		var global = db.queryGlobal(SimpleTable.class, "john").get();
+		Assertions.assertSame(global.get(0), db.queryGlobalUnique(SimpleTable.class, "john").get());
+		Assertions.assertEquals(1, secondary.get().size());
+
+		//writes clear cached lookups
+		db.put(new SimpleTable("garry", "john")).get();
+		Assertions.assertEquals(2, db.querySecondary(SimpleTable.class, "garry").get().size());
+		Assertions.assertEquals(2, db.queryGlobal(SimpleTable.class, "john").get().size());
+	}
+
+	@TestDatabase
+	void testFailedLookupOnlyFailsItself(final Database db) throws InterruptedException, ExecutionException {
+		db.put(new SimpleTable("garry", "john")).get();
+
+		//queued in the same dispatch as the good lookups
+		var bad = db.querySecondary(SimpleTable.class, builder -> builder.startsWith("garry").cursor("nope"));
+		var secondary = db.querySecondary(SimpleTable.class, "garry");
+		var global = db.queryGlobal(SimpleTable.class, "john");
+
+		Assertions.assertEquals(1, secondary.get().size());
+		Assertions.assertEquals(1, global.get().size());
+		var failure = Assertions.assertThrows(ExecutionException.class, bad::get);
+		Assertions.assertTrue(failure.getCause() instanceof UnsupportedOperationException);
+	}
+
+	@TestDatabase
+	void testGlobalPages(final Database db) throws InterruptedException, ExecutionException {
+		for (int i = 0; i < 5; i++) {
+			db.put(new SimpleTable("garry" + i, "john")).get();
+		}
+
+		var ids = new HashSet<String>();
+		var page = db.queryGlobalPage(SimpleTable.class, "john", 2, null).get();
+		int pages = 1;
+		page.getItems().forEach(item -> ids.add(item.getId()));
+		while (page.hasNextPage()) {
+			Assertions.assertEquals(2, page.getItems().size());
+			page = db.queryGlobalPage(SimpleTable.class, "john", 2, page.getCursor()).get();
+			page.getItems().forEach(item -> ids.add(item.getId()));
+			pages++;
+		}
+		Assertions.assertTrue(pages >= 3);
+		Assertions.assertEquals(5, ids.size());
+	}
+
+	@TestDatabase
+	void testGlobalPagesInheritance(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames({ "prod" }) final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		var garry = dbProd.put(new SimpleTable("garry", "john")).get();
+		var frank = dbProd.put(new SimpleTable("frank", "john")).get();
+		dbProd.put(new SimpleTable("barry", "john")).get();
+
+		//overridden in stage so only the stage row is returned
+		var override = new SimpleTable("harry", "john");
+		override.setId(garry.getId());
+		db.put(override).get();
+		//moved off the index in stage so not returned at all
+		var moved = new SimpleTable("frank", "jim");
+		moved.setId(frank.getId());
+		db.put(moved).get();
+
+		var names = new ArrayList<String>();
+		String cursor = null;
+		do {
+			var page = db.queryGlobalPage(SimpleTable.class, "john", 1, cursor).get();
+			page.getItems().forEach(item -> names.add(item.getName()));
+			cursor = page.getCursor();
+		} while (cursor != null);
+		names.sort(Comparator.naturalOrder());
+		Assertions.assertEquals(List.of("barry", "harry"), names);
+	}
+
 	@TestDatabase
 	void testMultiOrganisationSecondaryIndexWithDynamoDbManager(final DynamoDbManager dynamoDbManager) throws ExecutionException, InterruptedException {
 		final var db0 = dynamoDbManager.getDatabase("organisation-0");
@@ -14,11 +14,18 @@ package com.fleetpin.graphql.database.manager.test;
 
 import com.fleetpin.graphql.database.manager.Database;
 import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
 import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
 import com.fleetpin.graphql.database.manager.test.annotations.DatabaseOrganisation;
 import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Assertions;
 
 final class DynamoDbLinkTest {
@@ -179,6 +186,113 @@ final class DynamoDbLinkTest {
 		Assertions.assertNull(unlinked);
 	}
 
+	@TestDatabase
+	void unlinkKeepsOtherLinks(final Database db) throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+		var bob = db.put(new AnotherTable("bob")).get();
+		var john = db.put(new AnotherTable("john")).get();
+
+		garry = db.links(garry, AnotherTable.class, Arrays.asList(bob.getId(), john.getId())).get();
+		garry = db.unlink(garry, AnotherTable.class, bob.getId()).get();
+
+		garry = db.get(SimpleTable.class, garry.getId()).get();
+		bob = db.get(AnotherTable.class, bob.getId()).get();
+		john = db.get(AnotherTable.class, john.getId()).get();
+
+		Assertions.assertEquals("john", db.getLink(garry, AnotherTable.class).get().getName());
+		Assertions.assertNull(db.getLink(bob, SimpleTable.class).get());
+		Assertions.assertEquals("garry", db.getLink(john, SimpleTable.class).get().getName());
+	}
+
+	@TestDatabase
+	void testLinkMany(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+
+		var ids = new ArrayList<String>();
+		for (int i = 0; i < 120; i++) {
+			//half only exist in the lower table so the link has to create them in the upper one
+			var target = i % 2 == 0 ? db.put(new AnotherTable("target" + i)).get() : dbProd.put(new AnotherTable("target" + i)).get();
+			ids.add(target.getId());
+		}
+
+		garry = db.links(garry, AnotherTable.class, ids).get();
+		Assertions.assertEquals(2, garry.getRevision());
+
+		var targets = db.get(AnotherTable.class, ids).get();
+		for (var target : targets) {
+			Assertions.assertEquals("garry", db.getLink(target, SimpleTable.class).get().getName());
+		}
+
+		garry = db.links(garry, AnotherTable.class, ids.subList(0, 10)).get();
+		Assertions.assertEquals(3, garry.getRevision());
+
+		targets = db.get(AnotherTable.class, ids).get();
+		for (int i = 0; i < targets.size(); i++) {
+			var link = db.getLink(targets.get(i), SimpleTable.class).get();
+			if (i < 10) {
+				Assertions.assertEquals("garry", link.getName());
+			} else {
+				Assertions.assertNull(link);
+			}
+		}
+	}
+
+	@TestDatabase
+	void testLinksBulk(final Database db) throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+		var frank = db.put(new SimpleTable("frank")).get();
+		var bob = db.put(new AnotherTable("bob")).get();
+		var john = db.put(new AnotherTable("john")).get();
+
+		var links = new HashMap<SimpleTable, List<String>>();
+		links.put(garry, Arrays.asList(bob.getId(), john.getId()));
+		links.put(frank, Arrays.asList(bob.getId()));
+		var linked = db.linksBulk(links, AnotherTable.class).get();
+		Assertions.assertEquals(2, linked.size());
+		Assertions.assertEquals(2, garry.getRevision());
+		Assertions.assertEquals(2, frank.getRevision());
+
+		bob = db.get(AnotherTable.class, bob.getId()).get();
+		john = db.get(AnotherTable.class, john.getId()).get();
+
+		var bobLinks = db.getLinks(bob, SimpleTable.class).get();
+		bobLinks.sort(Comparator.comparing(a -> a.name));
+		Assertions.assertEquals(2, bobLinks.size());
+		Assertions.assertEquals("frank", bobLinks.get(0).name);
+		Assertions.assertEquals("garry", bobLinks.get(1).name);
+		Assertions.assertEquals("garry", db.getLink(john, SimpleTable.class).get().getName());
+
+		//moving a shared target between entities in one call both adds to and removes from it
+		links.clear();
+		links.put(garry, Arrays.asList(john.getId()));
+		links.put(frank, Arrays.asList(bob.getId(), john.getId()));
+		db.linksBulk(links, AnotherTable.class).get();
+
+		bob = db.get(AnotherTable.class, bob.getId()).get();
+		john = db.get(AnotherTable.class, john.getId()).get();
+		Assertions.assertEquals("frank", db.getLink(bob, SimpleTable.class).get().getName());
+		Assertions.assertEquals(2, db.getLinks(john, SimpleTable.class).get().size());
+	}
+
+	@TestDatabase
+	void testLinkFailureCompletes(final DynamoDbManager manager) throws InterruptedException, ExecutionException {
+		var client = new InterceptingDynamoDbClient(manager.getDynamoDbAsyncClient());
+		var failing = DynamoDbManager.builder().tables("table").dynamoDbAsyncClient(client).build();
+		var db = failing.getDatabase("organisation");
+		var finished = new CompletableFuture<>();
+		db.start(finished);
+
+		var garry = db.put(new SimpleTable("garry")).get();
+		var bob = db.put(new AnotherTable("bob")).get();
+
+		//thrown before linking has a future to fail
+		client.failUpdates(new IllegalStateException("update failed"));
+		var linked = db.link(garry, AnotherTable.class, bob.getId());
+		Assertions.assertThrows(ExecutionException.class, () -> linked.get(10, TimeUnit.SECONDS));
+		finished.complete(null);
+	}
+
 	static class SimpleTable extends Table {
 
 		private String name;
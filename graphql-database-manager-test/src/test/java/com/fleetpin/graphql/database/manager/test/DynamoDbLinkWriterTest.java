@@ -0,0 +1,35 @@
+package com.fleetpin.graphql.database.manager.test;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fleetpin.graphql.database.manager.DatabaseDriver;
+import com.fleetpin.graphql.database.manager.LinkWriter;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.mockito.Mockito;
+
+final class DynamoDbLinkWriterTest {
+
+	@TestDatabase
+	void testDispatchSize() {
+		DatabaseDriver my = Mockito.mock(DatabaseDriver.class, Mockito.CALLS_REAL_METHODS);
+		DynamoDbIndexesTest.SimpleTable entry1 = new DynamoDbIndexesTest.SimpleTable("garry", "john");
+		var linkWriter = new LinkWriter(my::bulkLink);
+		linkWriter.link("test", entry1, DynamoDbIndexesTest.SimpleTable.class, List.of("bob"));
+		linkWriter.link("test", entry1, DynamoDbIndexesTest.SimpleTable.class, List.of("frank"));
+		Assertions.assertEquals(2, linkWriter.dispatchSize());
+	}
+
+	@TestDatabase
+	void testDispatch() {
+		DatabaseDriver my = Mockito.mock(DatabaseDriver.class, Mockito.CALLS_REAL_METHODS);
+		DynamoDbIndexesTest.SimpleTable entry1 = new DynamoDbIndexesTest.SimpleTable("garry", "john");
+		var linkWriter = new LinkWriter(my::bulkLink);
+		linkWriter.link("test", entry1, DynamoDbIndexesTest.SimpleTable.class, List.of("bob"));
+		linkWriter.dispatch();
+		verify(my, times(1)).bulkLink(Mockito.anyList());
+		Assertions.assertEquals(0, linkWriter.dispatchSize());
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.annotations.SecondaryIndex;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbNamedSecondaryTest {
+
+	private static Database named(DynamoDbManager manager) {
+		var db = DynamoDbManager
+			.builder()
+			.tables("table")
+			.dynamoDbAsyncClient(manager.getDynamoDbAsyncClient())
+			.secondaryIndex("reference", "byReference", "reference")
+			.secondaryIndex("serial", "bySerial", "serial")
+			.build()
+			.getDatabase("organisation");
+		db.start(new CompletableFuture<>());
+		return db;
+	}
+
+	@TestDatabase
+	void testNamedIndexes(final DynamoDbManager manager) throws InterruptedException, ExecutionException {
+		var db = named(manager);
+		db.put(new Part("wheel", "W-1", "ref-3")).get();
+		db.put(new Part("wheel", "W-2", "ref-1")).get();
+		db.put(new Part("axle", "A-1", "ref-2")).get();
+
+		Assertions.assertEquals(List.of("W-1", "W-2"), codes(db.querySecondary(Part.class, "wheel").get()).stream().sorted().collect(Collectors.toList()));
+		Assertions.assertEquals("W-2", db.querySecondaryUnique(Part.class, "code", "W-2").get().getCode());
+		Assertions.assertNull(db.querySecondaryUnique(Part.class, "code", "wheel").get());
+		Assertions.assertEquals("A-1", db.querySecondaryUnique(Part.class, "reference", "ref-2").get().getCode());
+
+		Assertions.assertEquals(List.of("W-1", "W-2"), codes(db.querySecondary(Part.class, b -> b.index("code").startsWith("W-")).get()));
+		Assertions.assertEquals(List.of("W-1", "A-1"), codes(db.querySecondary(Part.class, b -> b.index("reference").from("ref-2").descending()).get()));
+	}
+
+	@TestDatabase
+	void testKeysOnlyGlobalIndex(final DynamoDbManager manager) throws InterruptedException, ExecutionException {
+		var db = named(manager);
+		var wheel = new Part("wheel", "W-1", "ref-1");
+		wheel.serial = "S-2";
+		db.put(wheel).get();
+		var axle = new Part("axle", "A-1", "ref-2");
+		axle.serial = "S-1";
+		db.put(axle).get();
+
+		//the index only holds keys so the whole entity has to come from the table
+		var found = db.querySecondaryUnique(Part.class, "serial", "S-2").get();
+		Assertions.assertEquals("wheel", found.getName());
+		Assertions.assertEquals("W-1", found.getCode());
+		Assertions.assertEquals(List.of("A-1", "W-1"), codes(db.querySecondary(Part.class, b -> b.index("serial").startsWith("S-")).get()));
+	}
+
+	@TestDatabase
+	void testNamedIndexUpdated(final DynamoDbManager manager) throws InterruptedException, ExecutionException {
+		var db = named(manager);
+		var part = db.put(new Part("wheel", "W-1", "ref-1")).get();
+		part.code = "W-9";
+		db.put(part).get();
+
+		Assertions.assertNull(db.querySecondaryUnique(Part.class, "code", "W-1").get());
+		Assertions.assertEquals(part.getId(), db.querySecondaryUnique(Part.class, "code", "W-9").get().getId());
+	}
+
+	private static List<String> codes(List<Part> parts) {
+		return parts.stream().map(Part::getCode).collect(Collectors.toList());
+	}
+
+	static class Part extends Table {
+
+		private String name;
+		private String code;
+		private String reference;
+		private String serial;
+
+		public Part() {}
+
+		public Part(String name, String code, String reference) {
+			this.name = name;
+			this.code = code;
+			this.reference = reference;
+		}
+
+		@SecondaryIndex
+		public String getName() {
+			return name;
+		}
+
+		@SecondaryIndex("code")
+		public String getCode() {
+			return code;
+		}
+
+		@SecondaryIndex("reference")
+		public String getReference() {
+			return reference;
+		}
+
+		@SecondaryIndex("serial")
+		public String getSerial() {
+			return serial;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.annotations.Prefetch;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbPrefetchTest {
+
+	@TestDatabase
+	void testPrefetch(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		dbProd.put(new Unit("kg", "kilogram")).get();
+		dbProd.put(new Unit("m", "metre")).get();
+
+		var units = db.prefetch(Unit.class).get();
+		Assertions.assertEquals(2, units.size());
+		for (var unit : units) {
+			Assertions.assertSame(unit, db.get(Unit.class, unit.getId()).get());
+		}
+
+		//written behind its back so only answered from memory
+		dbProd.put(new Unit("l", "litre")).get();
+		Assertions.assertNull(db.get(Unit.class, "l").get());
+		Assertions.assertTrue(db.getOptional(Unit.class, "l").get().isEmpty());
+
+		//a write through the database drops the prefetch
+		db.put(new Unit("s", "second")).get();
+		Assertions.assertEquals("litre", db.get(Unit.class, "l").get().getName());
+		Assertions.assertEquals("second", db.get(Unit.class, "s").get().getName());
+	}
+
+	@TestDatabase
+	void testPrefetchAnnotation(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		dbProd.put(new Category("a", "apples")).get();
+		dbProd.put(new Category("b", "bananas")).get();
+
+		Assertions.assertEquals("apples", db.get(Category.class, "a").get().getName());
+		dbProd.put(new Category("c", "cherries")).get();
+		Assertions.assertEquals("bananas", db.get(Category.class, "b").get().getName());
+		Assertions.assertNull(db.get(Category.class, "c").get());
+
+		var apples = db.get(Category.class, "a").get();
+		db.delete(apples, false).get();
+		Assertions.assertNull(db.get(Category.class, "a").get());
+		Assertions.assertEquals("cherries", db.get(Category.class, "c").get().getName());
+	}
+
+	static class Unit extends Table {
+
+		private String name;
+
+		public Unit() {}
+
+		public Unit(String id, String name) {
+			setId(id);
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	@Prefetch
+	static class Category extends Table {
+
+		private String name;
+
+		public Category() {}
+
+		public Category(String id, String name) {
+			setId(id);
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbProjectionTest {
+
+	@TestDatabase
+	void testGet(final Database db) throws InterruptedException, ExecutionException {
+		var garry = db.put(new BigTable("garry", "lots of text")).get();
+		var bob = db.put(new OtherTable("bob")).get();
+		db.link(garry, bob.getClass(), bob.getId()).get();
+
+		var partial = db.get(BigTable.class, garry.getId(), List.of("name")).get();
+		Assertions.assertEquals(garry.getId(), partial.getId());
+		Assertions.assertEquals("garry", partial.getName());
+		Assertions.assertNull(partial.getDescription());
+		Assertions.assertEquals(2, partial.getRevision());
+		Assertions.assertEquals("bob", db.getLink(partial, OtherTable.class).get().getName());
+
+		//full entities are cached apart from partial ones
+		var full = db.get(BigTable.class, garry.getId()).get();
+		Assertions.assertEquals("lots of text", full.getDescription());
+
+		Assertions.assertThrows(RuntimeException.class, () -> db.put(partial));
+	}
+
+	@TestDatabase
+	void testMixedBatch(final Database db) throws InterruptedException, ExecutionException {
+		var garry = db.put(new BigTable("garry", "lots of text")).get();
+
+		var partial = db.get(BigTable.class, garry.getId(), List.of("name"));
+		var full = db.get(BigTable.class, garry.getId());
+
+		Assertions.assertNull(partial.get().getDescription());
+		Assertions.assertEquals("lots of text", full.get().getDescription());
+	}
+
+	@TestDatabase
+	void testQuery(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		dbProd.put(new BigTable("garry", "lots of text")).get();
+		db.put(new BigTable("frank", "more text")).get();
+
+		var entries = db.query(BigTable.class, builder -> builder.fields("name")).get();
+		Assertions.assertEquals(2, entries.size());
+		for (var entry : entries) {
+			Assertions.assertNotNull(entry.getName());
+			Assertions.assertNull(entry.getDescription());
+		}
+
+		entries = db.query(BigTable.class).get();
+		for (var entry : entries) {
+			Assertions.assertNotNull(entry.getDescription());
+		}
+	}
+
+	static class BigTable extends Table {
+
+		private String name;
+		private String description;
+
+		public BigTable() {}
+
+		public BigTable(String name, String description) {
+			this.name = name;
+			this.description = description;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+	}
+
+	static class OtherTable extends Table {
+
+		private String name;
+
+		public OtherTable() {}
+
+		public OtherTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.test;
+
+import static com.fleetpin.graphql.database.manager.QueryFilter.contains;
+import static com.fleetpin.graphql.database.manager.QueryFilter.equal;
+import static com.fleetpin.graphql.database.manager.QueryFilter.exists;
+import static com.fleetpin.graphql.database.manager.QueryFilter.greaterThanOrEqual;
+import static com.fleetpin.graphql.database.manager.QueryFilter.lessThan;
+import static com.fleetpin.graphql.database.manager.QueryFilter.not;
+import static com.fleetpin.graphql.database.manager.QueryFilter.notExists;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbQueryFilterTest {
+
+	@TestDatabase
+	void testFilters(final Database db) throws InterruptedException, ExecutionException {
+		putDrivers(db);
+
+		Assertions.assertEquals(List.of("b", "d"), ids(db.query(Driver.class, builder -> builder.filter(equal("depot", "north"))).get()));
+		Assertions.assertEquals(List.of("a", "b"), ids(db.query(Driver.class, builder -> builder.filter(lessThan("age", 30))).get()));
+		Assertions.assertEquals(
+			List.of("c", "d"),
+			ids(db.query(Driver.class, builder -> builder.filter(greaterThanOrEqual("age", 30).and(contains("licences", "truck")))).get())
+		);
+		Assertions.assertEquals(List.of("a", "c"), ids(db.query(Driver.class, builder -> builder.filter(contains("name", "an"))).get()));
+		Assertions.assertEquals(List.of("a", "c"), ids(db.query(Driver.class, builder -> builder.filter(equal("address.city", "Auckland"))).get()));
+		Assertions.assertEquals(List.of("d"), ids(db.query(Driver.class, builder -> builder.filter(notExists("address.city"))).get()));
+		Assertions.assertEquals(
+			List.of("b"),
+			ids(db.query(Driver.class, builder -> builder.filter(exists("address.city")).filter(not(equal("address.city", "Auckland")))).get())
+		);
+	}
+
+	@TestDatabase
+	void testLimitCountsMatches(final Database db) throws InterruptedException, ExecutionException {
+		for (int i = 0; i < 30; i++) {
+			db.put(new Driver(String.format("%02d", i), "driver", i, i % 5 == 0 ? "south" : "north", List.of(), null)).get();
+		}
+
+		var ids = new ArrayList<String>();
+		String cursor = null;
+		do {
+			var next = cursor;
+			var page = db.queryPage(Driver.class, builder -> builder.filter(equal("depot", "south")).limit(2).cursor(next)).get();
+			Assertions.assertTrue(page.getItems().size() <= 2);
+			ids.addAll(ids(page.getItems()));
+			cursor = page.getCursor();
+		} while (cursor != null);
+
+		Assertions.assertEquals(List.of("00", "05", "10", "15", "20", "25"), ids);
+	}
+
+	@TestDatabase
+	void testFilterOverLayers(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		putDrivers(dbProd);
+
+		//moved out of the north depot in stage only, the prod row still matches but must stay hidden
+		var b = db.get(Driver.class, "b").get();
+		b.depot = "south";
+		db.put(b).get();
+		//moved in to the north depot in stage only
+		var c = db.get(Driver.class, "c").get();
+		c.depot = "north";
+		db.put(c).get();
+
+		Assertions.assertEquals(List.of("c", "d"), ids(db.query(Driver.class, builder -> builder.filter(equal("depot", "north"))).get()));
+		Assertions.assertEquals(List.of("b", "d"), ids(dbProd.query(Driver.class, builder -> builder.filter(equal("depot", "north"))).get()));
+
+		var partial = db.query(Driver.class, builder -> builder.filter(equal("depot", "north")).fields("name")).get();
+		Assertions.assertEquals(List.of("Dan", "Don"), partial.stream().map(Driver::getName).collect(Collectors.toList()));
+	}
+
+	private static void putDrivers(Database db) throws InterruptedException, ExecutionException {
+		db.put(new Driver("a", "Anna", 25, "south", List.of("car"), new Address("Auckland"))).get();
+		db.put(new Driver("b", "Ben", 28, "north", List.of("car", "van"), new Address("Wellington"))).get();
+		db.put(new Driver("c", "Dan", 41, "south", List.of("truck"), new Address("Auckland"))).get();
+		db.put(new Driver("d", "Don", 35, "north", List.of("car", "truck"), null)).get();
+	}
+
+	private static List<String> ids(List<Driver> items) {
+		return items.stream().map(Driver::getId).collect(Collectors.toList());
+	}
+
+	static class Driver extends Table {
+
+		private String name;
+		private int age;
+		private String depot;
+		private List<String> licences;
+		private Address address;
+
+		public Driver() {}
+
+		public Driver(String id, String name, int age, String depot, List<String> licences, Address address) {
+			setId(id);
+			this.name = name;
+			this.age = age;
+			this.depot = depot;
+			this.licences = licences;
+			this.address = address;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public String getDepot() {
+			return depot;
+		}
+
+		public List<String> getLicences() {
+			return licences;
+		}
+
+		public Address getAddress() {
+			return address;
+		}
+	}
+
+	static class Address {
+
+		private String city;
+
+		public Address() {}
+
+		public Address(String city) {
+			this.city = city;
+		}
+
+		public String getCity() {
+			return city;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbQueryPageTest {
+
+	@TestDatabase
+	void testPages(final Database db) throws InterruptedException, ExecutionException {
+		for (int i = 0; i < 25; i++) {
+			db.put(new SimpleTable(String.format("%02d", i))).get();
+		}
+
+		var names = new ArrayList<String>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			var next = cursor;
+			var page = db.queryPage(SimpleTable.class, builder -> builder.limit(10).cursor(next)).get();
+			Assertions.assertTrue(page.getItems().size() <= 10);
+			page.getItems().forEach(item -> names.add(item.getName()));
+			cursor = page.getCursor();
+			pages++;
+		} while (cursor != null);
+
+		Assertions.assertEquals(3, pages);
+		Assertions.assertEquals(25, names.size());
+		Assertions.assertEquals(names.stream().distinct().count(), names.size());
+	}
+
+	@TestDatabase
+	void testClimbingPages(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		for (var name : List.of("a", "b", "c", "d", "e", "f")) {
+			dbProd.put(new SimpleTable(name, name)).get();
+		}
+		db.putGlobal(new SimpleTable("cc", "global")).get();
+		db.delete(db.get(SimpleTable.class, "b").get(), false).get();
+		var d = db.get(SimpleTable.class, "d").get();
+		d.name = "D";
+		db.put(d).get();
+
+		var first = db.queryPage(SimpleTable.class, builder -> builder.limit(3)).get();
+		Assertions.assertEquals(List.of("a", "c", "global"), names(first.getItems()));
+		Assertions.assertTrue(first.hasNextPage());
+
+		var second = db.queryPage(SimpleTable.class, builder -> builder.limit(3).cursor(first.getCursor())).get();
+		Assertions.assertEquals(List.of("D", "e", "f"), names(second.getItems()));
+	}
+
+	@TestDatabase
+	void testLastPageHasNoCursor(final Database db) throws InterruptedException, ExecutionException {
+		db.put(new SimpleTable("garry")).get();
+		db.put(new SimpleTable("frank")).get();
+
+		var page = db.queryPage(SimpleTable.class, builder -> builder.limit(5)).get();
+		Assertions.assertEquals(2, page.getItems().size());
+		Assertions.assertFalse(page.hasNextPage());
+	}
+
+	private static List<String> names(List<SimpleTable> items) {
+		return items.stream().map(SimpleTable::getName).collect(Collectors.toList());
+	}
+
+	static class SimpleTable extends Table {
+
+		private String name;
+
+		public SimpleTable() {}
+
+		public SimpleTable(String name) {
+			this.name = name;
+		}
+
+		public SimpleTable(String id, String name) {
+			setId(id);
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
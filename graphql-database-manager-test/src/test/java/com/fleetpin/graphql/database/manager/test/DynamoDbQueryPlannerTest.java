@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.annotations.QueryPartitions;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbQueryPlannerTest {
+
+	@TestDatabase
+	void testTopTableOnly(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		dbProd.put(new TopOnly("garry")).get();
+		db.put(new TopOnly("frank")).get();
+
+		var found = db.query(TopOnly.class).get();
+		Assertions.assertEquals(1, found.size());
+		Assertions.assertEquals("frank", found.get(0).getName());
+	}
+
+	@TestDatabase
+	void testNeverGlobal(final Database db) throws InterruptedException, ExecutionException {
+		db.putGlobal(new NotGlobal("garry")).get();
+		db.put(new NotGlobal("frank")).get();
+
+		var found = db.query(NotGlobal.class).get();
+		Assertions.assertEquals(1, found.size());
+		Assertions.assertEquals("frank", found.get(0).getName());
+	}
+
+	@TestDatabase
+	void testLearnsEmptyLowerTables(@DatabaseNames({ "prod", "stage" }) final DynamoDbManager manager, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		var planned = DynamoDbManager
+			.builder()
+			.tables("prod", "stage")
+			.dynamoDbAsyncClient(manager.getDynamoDbAsyncClient())
+			.emptyPartitionTtl(Duration.ofMinutes(1))
+			.build();
+
+		var first = planned.getDatabase("organisation");
+		first.start(new CompletableFuture<>());
+		Assertions.assertTrue(first.query(SimpleTable.class).get().isEmpty());
+
+		dbProd.put(new SimpleTable("garry")).get();
+
+		//prod was empty a moment ago so is not read again until the ttl runs out
+		var second = planned.getDatabase("organisation");
+		second.start(new CompletableFuture<>());
+		Assertions.assertTrue(second.query(SimpleTable.class).get().isEmpty());
+
+		//without the ttl every partition is read
+		var unplanned = manager.getDatabase("organisation");
+		unplanned.start(new CompletableFuture<>());
+		Assertions.assertEquals(1, unplanned.query(SimpleTable.class).get().size());
+	}
+
+	@QueryPartitions(lowerTables = false)
+	static class TopOnly extends Table {
+
+		private String name;
+
+		public TopOnly() {}
+
+		public TopOnly(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	@QueryPartitions(global = false)
+	static class NotGlobal extends Table {
+
+		private String name;
+
+		public NotGlobal() {}
+
+		public NotGlobal(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	static class SimpleTable extends Table {
+
+		private String name;
+
+		public SimpleTable() {}
+
+		public SimpleTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbQueryRangeTest {
+
+	@TestDatabase
+	void testLatest(final Database db) throws InterruptedException, ExecutionException {
+		putEvents(db);
+
+		var latest = db.query(Event.class, builder -> builder.startsWith("2020-").descending().limit(3)).get();
+		Assertions.assertEquals(List.of("2020-12", "2020-11", "2020-10"), ids(latest));
+
+		var all = db.query(Event.class, builder -> builder.descending()).get();
+		Assertions.assertEquals(25, all.size());
+		Assertions.assertEquals("2021-01", all.get(0).getId());
+		Assertions.assertEquals("2019-01", all.get(24).getId());
+	}
+
+	@TestDatabase
+	void testBounds(final Database db) throws InterruptedException, ExecutionException {
+		putEvents(db);
+
+		var between = db.query(Event.class, builder -> builder.between("2020-03", "2020-05")).get();
+		Assertions.assertEquals(List.of("2020-03", "2020-04", "2020-05"), ids(between));
+
+		var open = db.query(Event.class, builder -> builder.between("2020-11", null)).get();
+		Assertions.assertEquals(List.of("2020-11", "2020-12", "2021-01"), ids(open));
+
+		var exclusive = db.query(Event.class, builder -> builder.greaterThan("2020-03").lessThan("2020-06")).get();
+		Assertions.assertEquals(List.of("2020-04", "2020-05"), ids(exclusive));
+
+		var prefixed = db.query(Event.class, builder -> builder.startsWith("2019-").greaterThan("2019-10")).get();
+		Assertions.assertEquals(List.of("2019-11", "2019-12"), ids(prefixed));
+
+		var limited = db.query(Event.class, builder -> builder.lessThan("2020-06").descending().limit(2)).get();
+		Assertions.assertEquals(List.of("2020-05", "2020-04"), ids(limited));
+
+		var none = db.query(Event.class, builder -> builder.greaterThan("2020-05").lessThan("2020-03")).get();
+		Assertions.assertTrue(none.isEmpty());
+
+		var after = db.query(Event.class, builder -> builder.between("2020-01", "2020-06").after("2020-04").descending()).get();
+		Assertions.assertEquals(List.of("2020-03", "2020-02", "2020-01"), ids(after));
+	}
+
+	@TestDatabase
+	void testDescendingPages(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		putEvents(dbProd);
+		db.delete(db.get(Event.class, "2020-08").get(), false).get();
+		db.put(new Event("2020-09-15")).get();
+
+		var ids = new ArrayList<String>();
+		String cursor = null;
+		do {
+			var next = cursor;
+			var page = db.queryPage(Event.class, builder -> builder.startsWith("2020-").descending().limit(4).cursor(next)).get();
+			Assertions.assertTrue(page.getItems().size() <= 4);
+			ids.addAll(ids(page.getItems()));
+			cursor = page.getCursor();
+		} while (cursor != null);
+
+		Assertions.assertEquals(
+			List.of("2020-12", "2020-11", "2020-10", "2020-09-15", "2020-09", "2020-07", "2020-06", "2020-05", "2020-04", "2020-03", "2020-02", "2020-01"),
+			ids
+		);
+	}
+
+	private static void putEvents(Database db) throws InterruptedException, ExecutionException {
+		for (int month = 1; month <= 12; month++) {
+			db.put(new Event(String.format("2019-%02d", month))).get();
+			db.put(new Event(String.format("2020-%02d", month))).get();
+		}
+		db.put(new Event("2021-01")).get();
+	}
+
+	private static List<String> ids(List<Event> items) {
+		return items.stream().map(Event::getId).collect(Collectors.toList());
+	}
+
+	static class Event extends Table {
+
+		public Event() {}
+
+		public Event(String id) {
+			setId(id);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbQuerySubsumptionTest {
+
+	@TestDatabase
+	void testNarrowerQueryAnsweredFromWider(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		dbProd.put(new Asset("site1:zone3:a")).get();
+		dbProd.put(new Asset("site1:zone3:b")).get();
+		dbProd.put(new Asset("site1:zone4:c")).get();
+		dbProd.put(new Asset("site2:zone3:d")).get();
+
+		var site = db.query(Asset.class, builder -> builder.startsWith("site1:")).get();
+		Assertions.assertEquals(List.of("site1:zone3:a", "site1:zone3:b", "site1:zone4:c"), ids(site));
+
+		//written behind its back so only seen if the narrower query went to the database
+		dbProd.put(new Asset("site1:zone3:e")).get();
+
+		var zone = db.query(Asset.class, builder -> builder.startsWith("site1:zone3:")).get();
+		Assertions.assertEquals(List.of("site1:zone3:a", "site1:zone3:b"), ids(zone));
+		Assertions.assertSame(site.get(0), zone.get(0));
+
+		var last = db.query(Asset.class, builder -> builder.startsWith("site1:zone3:").descending().limit(1)).get();
+		Assertions.assertEquals(List.of("site1:zone3:b"), ids(last));
+
+		//a write through the database stops the wider result being used
+		db.put(new Asset("site1:zone4:f")).get();
+		zone = db.query(Asset.class, builder -> builder.startsWith("site1:zone3:")).get();
+		Assertions.assertEquals(List.of("site1:zone3:a", "site1:zone3:b", "site1:zone3:e"), ids(zone));
+	}
+
+	@TestDatabase
+	void testLimitedQueryDoesNotAnswerNarrower(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		dbProd.put(new Asset("site1:zone3:a")).get();
+		dbProd.put(new Asset("site1:zone4:b")).get();
+		dbProd.put(new Asset("site1:zone4:c")).get();
+
+		var first = db.query(Asset.class, builder -> builder.startsWith("site1:").limit(1)).get();
+		Assertions.assertEquals(List.of("site1:zone3:a"), ids(first));
+
+		var zone = db.query(Asset.class, builder -> builder.startsWith("site1:zone4:")).get();
+		Assertions.assertEquals(List.of("site1:zone4:b", "site1:zone4:c"), ids(zone));
+	}
+
+	private static List<String> ids(List<Asset> assets) {
+		return assets.stream().map(Asset::getId).collect(Collectors.toList());
+	}
+
+	static class Asset extends Table {
+
+		public Asset() {}
+
+		public Asset(String id) {
+			setId(id);
+		}
+	}
+}
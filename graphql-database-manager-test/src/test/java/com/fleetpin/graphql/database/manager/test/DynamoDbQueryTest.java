@@ -13,6 +13,7 @@
 package com.fleetpin.graphql.database.manager.test;
 
 import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.ReadConsistency;
 import com.fleetpin.graphql.database.manager.Table;
 import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
 import com.fleetpin.graphql.database.manager.test.annotations.GlobalEnabled;
@@ -182,6 +183,49 @@ final class DynamoDbQueryTest {
 		Assertions.assertEquals("GARRY", entries.get(0).name);
 	}
 
+	@TestDatabase
+	void testClimbingLimitQuery(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		for (var name : new String[] { "a", "b", "c", "d", "e" }) {
+			var entry = new SimpleTable(name);
+			entry.setId(name);
+			dbProd.put(entry).get();
+		}
+		db.delete(db.get(SimpleTable.class, "a").get(), false).get();
+		db.delete(db.get(SimpleTable.class, "b").get(), false).get();
+		var c = db.get(SimpleTable.class, "c").get();
+		c.name = "C";
+		db.put(c).get();
+
+		//deleted rows must not count towards the limit
+		var entries = db.query(SimpleTable.class, builder -> builder.limit(2)).get();
+		Assertions.assertEquals(2, entries.size());
+		Assertions.assertEquals("C", entries.get(0).name);
+		Assertions.assertEquals("d", entries.get(1).name);
+	}
+
+	@TestDatabase
+	void testQueryPrimesGets(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		dbProd.put(new SimpleTable("garry")).get();
+		db.putGlobal(new SimpleTable("bob")).get();
+
+		var entries = db.query(SimpleTable.class).get();
+		Assertions.assertEquals(2, entries.size());
+		for (var entry : entries) {
+			Assertions.assertSame(entry, db.get(SimpleTable.class, entry.getId()).get());
+		}
+
+		var page = db.queryPage(SimpleTable.class, builder -> builder.limit(1).consistency(ReadConsistency.EVENTUAL)).get();
+		var first = page.getItems().get(0);
+		Assertions.assertSame(first, db.get(SimpleTable.class, first.getId(), ReadConsistency.EVENTUAL).get());
+
+		//partial entities are never handed out as whole ones
+		db.put(new AnotherTable("frank")).get();
+		var projected = db.query(AnotherTable.class, builder -> builder.fields("name")).get().get(0);
+		Assertions.assertNotSame(projected, db.get(AnotherTable.class, projected.getId()).get());
+	}
+
 	static class SimpleTable extends Table {
 
 		private String name;
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.ReadConsistency;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbReadConsistencyTest {
+
+	@TestDatabase
+	void testMixedGets(final Database db) throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+
+		var strong = db.get(SimpleTable.class, garry.getId(), ReadConsistency.STRONG);
+		var eventual = db.get(SimpleTable.class, garry.getId(), ReadConsistency.EVENTUAL);
+
+		Assertions.assertEquals("garry", strong.get().getName());
+		Assertions.assertEquals("garry", eventual.get().getName());
+	}
+
+	@TestDatabase
+	void testDefault(final Database db) throws InterruptedException, ExecutionException {
+		db.setReadConsistency(ReadConsistency.EVENTUAL);
+		var garry = db.put(new SimpleTable("garry")).get();
+		Assertions.assertEquals("garry", db.get(SimpleTable.class, garry.getId()).get().getName());
+
+		//writes still clear eventual reads from the cache
+		garry.setName("GARRY");
+		db.put(garry).get();
+		Assertions.assertEquals("GARRY", db.get(SimpleTable.class, garry.getId()).get().getName());
+	}
+
+	@TestDatabase
+	void testQuery(final Database db) throws InterruptedException, ExecutionException {
+		db.put(new SimpleTable("garry")).get();
+		db.put(new SimpleTable("frank")).get();
+
+		var entries = db.query(SimpleTable.class, builder -> builder.consistency(ReadConsistency.EVENTUAL)).get();
+		Assertions.assertEquals(2, entries.size());
+	}
+
+	static class SimpleTable extends Table {
+
+		private String name;
+
+		public SimpleTable() {}
+
+		public SimpleTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+}
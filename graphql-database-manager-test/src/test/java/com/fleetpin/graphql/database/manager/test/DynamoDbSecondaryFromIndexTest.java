@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.DynamoDbIndexesTest.SimpleTable;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbSecondaryFromIndexTest {
+
+	private static Database fromIndex(DynamoDbManager manager) {
+		var db = DynamoDbManager
+			.builder()
+			.tables("prod", "stage")
+			.dynamoDbAsyncClient(manager.getDynamoDbAsyncClient())
+			.secondaryFromIndex(true)
+			.build()
+			.getDatabase("organisation");
+		db.start(new CompletableFuture<>());
+		return db;
+	}
+
+	@TestDatabase
+	void testSecondary(@DatabaseNames({ "prod", "stage" }) final DynamoDbManager manager, @DatabaseNames({ "prod", "stage" }) final Database db)
+		throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry", "john")).get();
+		db.put(new SimpleTable("frank", "john")).get();
+
+		var read = fromIndex(manager);
+		var list = read.querySecondary(SimpleTable.class, "garry").get();
+		Assertions.assertEquals(1, list.size());
+		Assertions.assertEquals("john", list.get(0).getGlobalLookup());
+		Assertions.assertEquals(garry.getId(), list.get(0).getId());
+
+		//primed so the same instance comes back from a get
+		Assertions.assertSame(list.get(0), read.get(SimpleTable.class, garry.getId()).get());
+		Assertions.assertSame(list.get(0), read.querySecondaryUnique(SimpleTable.class, "garry").get());
+		Assertions.assertNull(read.querySecondaryUnique(SimpleTable.class, "barry").get());
+	}
+
+	@TestDatabase
+	void testSecondaryInheritance(
+		@DatabaseNames({ "prod", "stage" }) final DynamoDbManager manager,
+		@DatabaseNames({ "prod", "stage" }) final Database db,
+		@DatabaseNames("prod") final Database dbProd
+	) throws InterruptedException, ExecutionException {
+		var garry = dbProd.put(new SimpleTable("garry", "john")).get();
+		var frank = dbProd.put(new SimpleTable("frank", "john")).get();
+
+		var override = new SimpleTable("garry", "barry");
+		override.setId(garry.getId());
+		db.put(override).get();
+		db.link(frank, SimpleTable.class, garry.getId()).get();
+
+		var read = fromIndex(manager);
+		Assertions.assertEquals("barry", read.querySecondaryUnique(SimpleTable.class, "garry").get().getGlobalLookup());
+
+		//only found in prod so still layered with the links from stage
+		var found = read.querySecondaryUnique(SimpleTable.class, "frank").get();
+		Assertions.assertEquals("john", found.getGlobalLookup());
+		Assertions.assertEquals(1, read.getLinks(found, SimpleTable.class).get().size());
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.annotations.SecondaryIndex;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbSecondaryRangeTest {
+
+	@TestDatabase
+	void testRanges(final Database db) throws InterruptedException, ExecutionException {
+		for (var due : List.of("2024-01-03", "2024-01-01", "2024-01-09", "2024-02-01", "2024-01-05")) {
+			db.put(new Job(due)).get();
+		}
+		db.put(new Other("2024-01-04")).get();
+
+		Assertions.assertEquals(
+			List.of("2024-01-01", "2024-01-03", "2024-01-05"),
+			due(db.querySecondary(Job.class, b -> b.between("2024-01-01", "2024-01-07")).get())
+		);
+		Assertions.assertEquals(
+			List.of("2024-01-01", "2024-01-03", "2024-01-05", "2024-01-09"),
+			due(db.querySecondary(Job.class, b -> b.startsWith("2024-01")).get())
+		);
+		Assertions.assertEquals(List.of("2024-01-09", "2024-02-01"), due(db.querySecondary(Job.class, b -> b.from("2024-01-06")).get()));
+		Assertions.assertEquals(List.of("2024-01-01", "2024-01-03"), due(db.querySecondary(Job.class, b -> b.to("2024-01-03")).get()));
+		Assertions.assertEquals(List.of("2024-01-01", "2024-01-03"), due(db.querySecondary(Job.class, b -> b.from("2024-01-01").limit(2)).get()));
+		Assertions.assertEquals(List.of("2024-02-01", "2024-01-09"), due(db.querySecondary(Job.class, b -> b.from("2024-01-01").limit(2).descending()).get()));
+		Assertions.assertEquals(List.of("2024-01-05"), due(db.querySecondary(Job.class, b -> b.value("2024-01-05").limit(1)).get()));
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> db.querySecondary(Job.class, b -> b.value("2024-01-05").startsWith("2024")));
+	}
+
+	@TestDatabase
+	void testRangeInheritance(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		var first = dbProd.put(new Job("2024-01-01")).get();
+		dbProd.put(new Job("2024-01-02")).get();
+		dbProd.put(new Job("2024-01-04")).get();
+		db.put(new Job("2024-01-03")).get();
+
+		//moved out of the range in stage
+		var moved = new Job("2024-03-01");
+		moved.setId(first.getId());
+		db.put(moved).get();
+
+		Assertions.assertEquals(List.of("2024-01-02", "2024-01-03"), due(db.querySecondary(Job.class, b -> b.startsWith("2024-01").limit(2)).get()));
+		Assertions.assertEquals(List.of("2024-03-01", "2024-01-04"), due(db.querySecondary(Job.class, b -> b.from("2024-01-04").descending()).get()));
+		Assertions.assertEquals(0, dbProd.querySecondary(Job.class, b -> b.from("2024-02-01")).get().size());
+	}
+
+	private static List<String> due(List<Job> jobs) {
+		return jobs.stream().map(Job::getDue).collect(Collectors.toList());
+	}
+
+	static class Job extends Table {
+
+		private String due;
+
+		public Job() {}
+
+		public Job(String due) {
+			this.due = due;
+		}
+
+		@SecondaryIndex
+		public String getDue() {
+			return due;
+		}
+	}
+
+	static class Other extends Table {
+
+		private String due;
+
+		public Other() {}
+
+		public Other(String due) {
+			this.due = due;
+		}
+
+		@SecondaryIndex
+		public String getDue() {
+			return due;
+		}
+	}
+}
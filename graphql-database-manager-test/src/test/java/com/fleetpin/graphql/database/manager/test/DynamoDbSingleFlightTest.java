@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+final class DynamoDbSingleFlightTest {
+
+	private static DynamoDbManager shared(DynamoDbAsyncClient client, Duration window) {
+		return DynamoDbManager.builder().tables("table").dynamoDbAsyncClient(client).singleFlight(window).build();
+	}
+
+	private static Database database(DynamoDbManager manager) {
+		var db = manager.getDatabase("organisation");
+		db.start(new CompletableFuture<>());
+		return db;
+	}
+
+	@TestDatabase
+	void testConcurrentReads(final DynamoDbManager manager, final Database db) throws InterruptedException, ExecutionException {
+		var client = new InterceptingDynamoDbClient(manager.getDynamoDbAsyncClient());
+		var shared = shared(client, Duration.ofMillis(2));
+		var garry = db.put(new SimpleTable("garry")).get();
+
+		//how many calls a single database makes on its own once the partitions are known
+		database(shared).query(SimpleTable.class).get();
+		var batchGets = client.getBatchGets();
+		var queryCalls = client.getQueries();
+		database(shared).get(SimpleTable.class, garry.getId()).get();
+		database(shared).query(SimpleTable.class).get();
+		var soloBatchGets = client.getBatchGets() - batchGets;
+		var soloQueryCalls = client.getQueries() - queryCalls;
+
+		//the first reads stay in flight long enough for every other database to join them
+		client.delayNextBatchGet(Duration.ofMillis(500));
+		client.delayNextQuery(Duration.ofMillis(500));
+		batchGets = client.getBatchGets();
+		queryCalls = client.getQueries();
+
+		var gets = new ArrayList<CompletableFuture<SimpleTable>>();
+		var queries = new ArrayList<CompletableFuture<List<SimpleTable>>>();
+		for (int i = 0; i < 20; i++) {
+			var read = database(shared);
+			gets.add(read.get(SimpleTable.class, garry.getId()));
+			queries.add(read.query(SimpleTable.class));
+		}
+
+		for (int i = 0; i < gets.size(); i++) {
+			Assertions.assertEquals("garry", gets.get(i).get().getName());
+			Assertions.assertEquals(1, queries.get(i).get().size());
+		}
+		Assertions.assertEquals(soloBatchGets, client.getBatchGets() - batchGets);
+		Assertions.assertEquals(soloQueryCalls, client.getQueries() - queryCalls);
+
+		//every database gets entities of its own even when the read was shared
+		Assertions.assertNotSame(gets.get(0).get(), gets.get(1).get());
+		Assertions.assertNotSame(queries.get(0).get().get(0), queries.get(1).get().get(0));
+	}
+
+	@TestDatabase
+	void testReadsArePacked(final DynamoDbManager manager, final Database db) throws InterruptedException, ExecutionException {
+		var client = new InterceptingDynamoDbClient(manager.getDynamoDbAsyncClient());
+		var shared = shared(client, Duration.ofMillis(200));
+		var ids = new ArrayList<String>();
+		for (int i = 0; i < 10; i++) {
+			ids.add(db.put(new SimpleTable("garry" + i)).get().getId());
+		}
+
+		var batchGets = client.getBatchGets();
+		var gets = new ArrayList<CompletableFuture<SimpleTable>>();
+		for (var id : ids) {
+			gets.add(database(shared).get(SimpleTable.class, id));
+		}
+		for (int i = 0; i < gets.size(); i++) {
+			Assertions.assertEquals("garry" + i, gets.get(i).get().getName());
+		}
+		//single keys from different databases inside the window go out together
+		Assertions.assertEquals(1, client.getBatchGets() - batchGets);
+	}
+
+	@TestDatabase
+	void testConcurrentReadsOfDifferentKeys(final DynamoDbManager manager, final Database db) throws InterruptedException, ExecutionException {
+		var shared = shared(manager.getDynamoDbAsyncClient(), Duration.ofMillis(2));
+		var garry = db.put(new SimpleTable("garry")).get();
+		var frank = db.put(new SimpleTable("frank")).get();
+
+		var gets = new ArrayList<CompletableFuture<SimpleTable>>();
+		var queries = new ArrayList<CompletableFuture<List<SimpleTable>>>();
+		for (int i = 0; i < 20; i++) {
+			var read = database(shared);
+			gets.add(read.get(SimpleTable.class, i % 2 == 0 ? garry.getId() : frank.getId()));
+			queries.add(read.query(SimpleTable.class));
+		}
+
+		for (int i = 0; i < gets.size(); i++) {
+			Assertions.assertEquals(i % 2 == 0 ? "garry" : "frank", gets.get(i).get().getName());
+			Assertions.assertEquals(2, queries.get(i).get().size());
+		}
+		//every database gets entities of its own even when the read was shared
+		Assertions.assertNotSame(gets.get(0).get(), gets.get(2).get());
+		Assertions.assertNotSame(queries.get(0).get().get(0), queries.get(1).get().get(0));
+	}
+
+	@TestDatabase
+	void testReadsSeeWrites(final DynamoDbManager manager) throws InterruptedException, ExecutionException {
+		var shared = shared(manager.getDynamoDbAsyncClient(), Duration.ofMillis(2));
+		var db = database(shared);
+		var garry = db.put(new SimpleTable("garry")).get();
+
+		for (int i = 0; i < 10; i++) {
+			var other = database(shared);
+			var reading = other.get(SimpleTable.class, garry.getId());
+
+			var writer = database(shared);
+			var toUpdate = writer.get(SimpleTable.class, garry.getId()).get();
+			toUpdate.name = "garry" + i;
+			writer.put(toUpdate).get();
+
+			Assertions.assertNotNull(reading.get());
+			Assertions.assertEquals("garry" + i, writer.get(SimpleTable.class, garry.getId()).get().getName());
+			Assertions.assertEquals("garry" + i, database(shared).get(SimpleTable.class, garry.getId()).get().getName());
+			Assertions.assertEquals("garry" + i, database(shared).query(SimpleTable.class).get().get(0).getName());
+		}
+	}
+
+	static class SimpleTable extends Table {
+
+		private String name;
+
+		public SimpleTable() {}
+
+		public SimpleTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
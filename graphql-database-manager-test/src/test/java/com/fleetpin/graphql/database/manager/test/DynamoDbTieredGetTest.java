@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.dynamo.DynamoDbManager;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbTieredGetTest {
+
+	private static Database tiered(DynamoDbManager manager) {
+		var db = DynamoDbManager
+			.builder()
+			.tables("prod", "stage")
+			.dynamoDbAsyncClient(manager.getDynamoDbAsyncClient())
+			.tieredGets(true)
+			.build()
+			.getDatabase("organisation");
+		db.start(new CompletableFuture<>());
+		return db;
+	}
+
+	@TestDatabase
+	void testOverlays(
+		@DatabaseNames({ "prod", "stage" }) final DynamoDbManager manager,
+		@DatabaseNames({ "prod", "stage" }) final Database db,
+		@DatabaseNames("prod") final Database dbProd
+	) throws InterruptedException, ExecutionException {
+		var lower = dbProd.put(new SimpleTable("lower")).get();
+		var replaced = dbProd.put(new SimpleTable("replaced")).get();
+		var removed = dbProd.put(new SimpleTable("removed")).get();
+		var top = db.put(new SimpleTable("top")).get();
+
+		replaced.setName("replaced in stage");
+		db.put(replaced).get();
+		db.delete(db.get(SimpleTable.class, removed.getId()).get(), false).get();
+
+		var tiered = tiered(manager);
+
+		Assertions.assertEquals("lower", tiered.get(SimpleTable.class, lower.getId()).get().getName());
+		Assertions.assertEquals("replaced in stage", tiered.get(SimpleTable.class, replaced.getId()).get().getName());
+		Assertions.assertNull(tiered.get(SimpleTable.class, removed.getId()).get());
+		Assertions.assertEquals("top", tiered.get(SimpleTable.class, top.getId()).get().getName());
+		Assertions.assertNull(tiered.get(SimpleTable.class, "missing").get());
+	}
+
+	@TestDatabase
+	void testLinksOnlyOverlay(
+		@DatabaseNames({ "prod", "stage" }) final DynamoDbManager manager,
+		@DatabaseNames({ "prod", "stage" }) final Database db,
+		@DatabaseNames("prod") final Database dbProd
+	) throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+		var frank = dbProd.put(new SimpleTable("frank")).get();
+		var bob = dbProd.put(new AnotherTable("bob")).get();
+
+		//stage now only holds the links of bob, the item itself is still in prod
+		db.link(garry, bob.getClass(), bob.getId()).get();
+		dbProd.link(frank, bob.getClass(), bob.getId()).get();
+
+		var tiered = tiered(manager);
+		bob = tiered.get(AnotherTable.class, bob.getId()).get();
+		Assertions.assertEquals("bob", bob.getName());
+
+		var bobLinks = tiered.getLinks(bob, SimpleTable.class).get();
+		Assertions.assertEquals(2, bobLinks.size());
+		bobLinks.sort(Comparator.comparing(SimpleTable::getName));
+		Assertions.assertEquals("frank", bobLinks.get(0).getName());
+		Assertions.assertEquals("garry", bobLinks.get(1).getName());
+	}
+
+	@TestDatabase
+	void testLowerLinksUnderFullItem(
+		@DatabaseNames({ "prod", "stage" }) final DynamoDbManager manager,
+		@DatabaseNames({ "prod", "stage" }) final Database db,
+		@DatabaseNames("prod") final Database dbProd
+	) throws InterruptedException, ExecutionException {
+		var garry = db.put(new SimpleTable("garry")).get();
+		var frank = dbProd.put(new SimpleTable("frank")).get();
+		var bob = dbProd.put(new AnotherTable("bob")).get();
+
+		db.link(garry, bob.getClass(), bob.getId()).get();
+		//stage now holds the full item of bob, prod gains a link after it was written
+		db.put(db.get(AnotherTable.class, bob.getId()).get()).get();
+		dbProd.link(frank, bob.getClass(), bob.getId()).get();
+
+		var tiered = tiered(manager);
+		var tieredBob = tiered.get(AnotherTable.class, bob.getId()).get();
+		Assertions.assertEquals("bob", tieredBob.getName());
+
+		var tieredLinks = tiered.getLinks(tieredBob, SimpleTable.class).get();
+		var links = db.getLinks(db.get(AnotherTable.class, bob.getId()).get(), SimpleTable.class).get();
+		Assertions.assertEquals(2, tieredLinks.size());
+		Assertions.assertEquals(2, links.size());
+		tieredLinks.sort(Comparator.comparing(SimpleTable::getName));
+		Assertions.assertEquals("frank", tieredLinks.get(0).getName());
+		Assertions.assertEquals("garry", tieredLinks.get(1).getName());
+	}
+
+	static class SimpleTable extends Table {
+
+		private String name;
+
+		public SimpleTable() {}
+
+		public SimpleTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	static class AnotherTable extends Table {
+
+		private String name;
+
+		public AnotherTable() {}
+
+		public AnotherTable(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
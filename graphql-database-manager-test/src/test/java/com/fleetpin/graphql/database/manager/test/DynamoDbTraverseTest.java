@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.test;
+
+import com.fleetpin.graphql.database.manager.Database;
+import com.fleetpin.graphql.database.manager.Table;
+import com.fleetpin.graphql.database.manager.Traversal;
+import com.fleetpin.graphql.database.manager.test.annotations.DatabaseNames;
+import com.fleetpin.graphql.database.manager.test.annotations.TestDatabase;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+final class DynamoDbTraverseTest {
+
+	@TestDatabase
+	void testTraverse(@DatabaseNames({ "prod", "stage" }) final Database db, @DatabaseNames("prod") final Database dbProd)
+		throws InterruptedException, ExecutionException {
+		var site = dbProd.put(new Site("site")).get();
+		link(db, new Zone("z1"), Site.class, "site");
+		link(db, new Zone("z2"), Site.class, "site");
+		link(db, new Asset("a1"), Zone.class, "z1");
+		link(db, new Asset("a2"), Zone.class, "z1");
+		link(db, new Asset("a3"), Zone.class, "z2");
+		link(db, new Sensor("s1"), Asset.class, "a1");
+		link(db, new Sensor("s2"), Asset.class, "a2");
+		link(db, new Sensor("s3"), Asset.class, "a3");
+		link(db, new Sensor("s4"), Asset.class, "a3");
+		site = db.get(Site.class, site.getId()).get();
+
+		var sensors = db.traverse(site, Traversal.to(Zone.class).then(Asset.class).then(Sensor.class)).get();
+		Assertions.assertEquals(List.of("s1", "s2", "s3", "s4"), ids(sensors));
+
+		//only the lowest asset of each zone is followed
+		sensors = db.traverse(site, Traversal.to(Zone.class).then(Asset.class, 1).then(Sensor.class)).get();
+		Assertions.assertEquals(List.of("s1", "s3", "s4"), ids(sensors));
+
+		//both zones link back to the same site
+		var zones = db.traverse(site, Traversal.to(Zone.class)).get();
+		var sites = db.traverse(zones, Traversal.to(Site.class)).get();
+		Assertions.assertEquals(List.of("site"), ids(sites));
+	}
+
+	@TestDatabase
+	void testTraverseCycle(final Database db) throws InterruptedException, ExecutionException {
+		var site = db.put(new Site("site")).get();
+		link(db, new Zone("z1"), Site.class, "site");
+		site = db.get(Site.class, site.getId()).get();
+
+		Assertions.assertTrue(db.traverse(site, Traversal.to(Zone.class).then(Site.class)).get().isEmpty());
+		Assertions.assertTrue(db.traverse(site, Traversal.to(Zone.class).then(Site.class).then(Zone.class)).get().isEmpty());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Traversal.to(Zone.class, 0));
+	}
+
+	private static void link(Database db, Table entity, Class<? extends Table> target, String targetId) throws InterruptedException, ExecutionException {
+		db.link(db.put(entity).get(), target, targetId).get();
+	}
+
+	private static List<String> ids(List<? extends Table> entities) {
+		return entities.stream().map(Table::getId).sorted().collect(Collectors.toList());
+	}
+
+	static class Site extends Table {
+
+		public Site() {}
+
+		public Site(String id) {
+			setId(id);
+		}
+	}
+
+	static class Zone extends Table {
+
+		public Zone() {}
+
+		public Zone(String id) {
+			setId(id);
+		}
+	}
+
+	static class Asset extends Table {
+
+		public Asset() {}
+
+		public Asset(String id) {
+			setId(id);
+		}
+	}
+
+	static class Sensor extends Table {
+
+		public Sensor() {}
+
+		public Sensor(String id) {
+			setId(id);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.fleetpin.graphql.database.manager.test;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.paginators.QueryPublisher;
+
+/**
+ * Passes the calls the driver makes through to a real client so tests can count them, slow them down or make them fail.
+ */
+final class InterceptingDynamoDbClient implements DynamoDbAsyncClient {
+
+	private final DynamoDbAsyncClient client;
+	private final AtomicInteger batchGets = new AtomicInteger();
+	private final AtomicInteger queries = new AtomicInteger();
+	private final Queue<Duration> batchGetDelays = new ConcurrentLinkedQueue<>();
+	private final Queue<Duration> queryDelays = new ConcurrentLinkedQueue<>();
+	private volatile RuntimeException updateFailure;
+
+	InterceptingDynamoDbClient(DynamoDbAsyncClient client) {
+		this.client = client;
+	}
+
+	int getBatchGets() {
+		return batchGets.get();
+	}
+
+	int getQueries() {
+		return queries.get();
+	}
+
+	/**
+	 * The next batch get waits this long before it is sent, later ones go straight away
+	 */
+	void delayNextBatchGet(Duration delay) {
+		batchGetDelays.add(delay);
+	}
+
+	/**
+	 * The next query page waits this long before it is sent, later ones go straight away
+	 */
+	void delayNextQuery(Duration delay) {
+		queryDelays.add(delay);
+	}
+
+	/**
+	 * Updates throw straight away rather than returning a future
+	 */
+	void failUpdates(RuntimeException failure) {
+		this.updateFailure = failure;
+	}
+
+	@Override
+	public String serviceName() {
+		return client.serviceName();
+	}
+
+	@Override
+	public void close() {
+		client.close();
+	}
+
+	@Override
+	public CompletableFuture<BatchGetItemResponse> batchGetItem(BatchGetItemRequest request) {
+		batchGets.incrementAndGet();
+		var delay = batchGetDelays.poll();
+		if (delay == null) {
+			return client.batchGetItem(request);
+		}
+		return delayed(delay, () -> client.batchGetItem(request));
+	}
+
+	@Override
+	public CompletableFuture<BatchWriteItemResponse> batchWriteItem(BatchWriteItemRequest request) {
+		return client.batchWriteItem(request);
+	}
+
+	@Override
+	public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+		return client.getItem(request);
+	}
+
+	@Override
+	public CompletableFuture<PutItemResponse> putItem(PutItemRequest request) {
+		return client.putItem(request);
+	}
+
+	@Override
+	public CompletableFuture<UpdateItemResponse> updateItem(UpdateItemRequest request) {
+		var failure = updateFailure;
+		if (failure != null) {
+			throw failure;
+		}
+		return client.updateItem(request);
+	}
+
+	@Override
+	public CompletableFuture<DeleteItemResponse> deleteItem(DeleteItemRequest request) {
+		return client.deleteItem(request);
+	}
+
+	@Override
+	public CompletableFuture<QueryResponse> query(QueryRequest request) {
+		queries.incrementAndGet();
+		var delay = queryDelays.poll();
+		if (delay == null) {
+			return client.query(request);
+		}
+		return delayed(delay, () -> client.query(request));
+	}
+
+	@Override
+	public QueryPublisher queryPaginator(QueryRequest request) {
+		//pages come back through query so they are counted
+		return new QueryPublisher(this, request);
+	}
+
+	private static <T> CompletableFuture<T> delayed(Duration delay, Supplier<CompletableFuture<T>> request) {
+		return CompletableFuture
+			.supplyAsync(request, CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS))
+			.thenCompose(future -> future);
+	}
+}